@@ -0,0 +1,209 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+
+/** An abstract {@code LogicalMessage} which implements the JAXB access to
+ *  the payload on top of the {@code Source} access, which JAX-WS runtimes
+ *  provide by implementing {@link #getPayloadSource()} and
+ *  {@link #setPayloadSource(Source)}.
+ *
+ *  <p>The object returned by {@link #getPayload(JAXBContext)} is memoized,
+ *  keyed by the identity of the {@code JAXBContext}, until the payload is
+ *  set again. When several handlers read the payload with the same
+ *  context, it is unmarshalled once; these handlers share the returned
+ *  object, so changes made to it by one handler are seen by the next ones.
+ *  Changes to the payload still require calling {@code setPayload}.
+ *  An object set by {@link #setPayload(Object, JAXBContext)} is only
+ *  marshalled when the payload is next accessed as a {@code Source}, or not
+ *  at all if it is only read again with the same context.
+ *
+ *  <p>{@code Marshaller}s and {@code Unmarshaller}s are pooled
+ *  per {@code JAXBContext} and shared by all messages.
+ *
+ *  <p>Instances are not thread-safe.
+ *
+ *  @since JAX-WS 2.4
+**/
+public abstract class AbstractLogicalMessage implements LogicalMessage {
+
+    // the memoized JAXB view of the payload, null if none
+    private JAXBContext memoContext;
+    private Object memo;
+    // whether memo was set by setPayload and not yet marshalled
+    private boolean memoPending;
+
+    /** Default constructor.
+    **/
+    protected AbstractLogicalMessage() {
+    }
+
+    /** Gets the message payload as an XML source. See
+     *  {@link LogicalMessage#getPayload()}.
+     *
+     *  @return The contained message payload; returns {@code null} if no
+     *          payload is present in this message.
+    **/
+    protected abstract Source getPayloadSource();
+
+    /** Sets the message payload. See {@link LogicalMessage#setPayload(Source)}.
+     *
+     *  @param  payload message payload
+    **/
+    protected abstract void setPayloadSource(Source payload);
+
+    /** {@inheritDoc}
+     *
+     *  <p>An object set by {@link #setPayload(Object, JAXBContext)} is
+     *  marshalled first.
+    **/
+    @Override
+    public Source getPayload() {
+        flush();
+        return getPayloadSource();
+    }
+
+    @Override
+    public void setPayload(Source payload) {
+        clearMemo();
+        setPayloadSource(payload);
+    }
+
+    /** {@inheritDoc}
+     *
+     *  <p>The returned object is memoized for {@code context}, see
+     *  {@link AbstractLogicalMessage}.
+    **/
+    @Override
+    public Object getPayload(JAXBContext context) {
+        if (context == null) {
+            throw new WebServiceException("JAXBContext is null");
+        }
+        if (memoContext == context) {
+            return memo;
+        }
+        Source source = getPayload();
+        if (source == null) {
+            return null;
+        }
+        MarshallerPool pool = MarshallerPool.of(context);
+        try {
+            Unmarshaller unmarshaller = pool.acquireUnmarshaller();
+            Object payload;
+            boolean done = false;
+            try {
+                payload = unmarshaller.unmarshal(source);
+                done = true;
+            } finally {
+                // a failed unmarshaller is discarded
+                if (done) {
+                    pool.releaseUnmarshaller(unmarshaller);
+                }
+            }
+            memoContext = context;
+            memo = payload;
+            memoPending = false;
+            return payload;
+        } catch (JAXBException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    @Override
+    public void setPayload(Object payload, JAXBContext context) {
+        if (context == null) {
+            throw new WebServiceException("JAXBContext is null");
+        }
+        memoContext = context;
+        memo = payload;
+        memoPending = true;
+    }
+
+    /** Marshals the object set by {@link #setPayload(Object, JAXBContext)}
+     *  into the payload, if not done yet. JAX-WS runtimes call this method
+     *  before they read the payload without {@link #getPayload()}.
+     *
+     *  @throws WebServiceException If an error occurs when marshalling
+     *     the payload. The cause of the WebServiceException is the
+     *     original JAXBException.
+    **/
+    public void flush() {
+        if (!memoPending) {
+            return;
+        }
+        if (memo == null) {
+            setPayloadSource(null);
+        } else {
+            MarshallerPool pool = MarshallerPool.of(memoContext);
+            try {
+                Marshaller marshaller = pool.acquireMarshaller();
+                DOMResult result = new DOMResult();
+                boolean done = false;
+                try {
+                    marshaller.marshal(memo, result);
+                    done = true;
+                } finally {
+                    // a failed marshaller is discarded
+                    if (done) {
+                        pool.releaseMarshaller(marshaller);
+                    }
+                }
+                setPayloadSource(new DOMSource(result.getNode()));
+            } catch (JAXBException e) {
+                throw new WebServiceException(e);
+            }
+        }
+        memoPending = false;
+    }
+
+    private void clearMemo() {
+        memoContext = null;
+        memo = null;
+        memoPending = false;
+    }
+}
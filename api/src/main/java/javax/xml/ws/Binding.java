@@ -70,6 +70,26 @@ public interface Binding {
     */
     public void setHandlerChain(java.util.List<javax.xml.ws.handler.Handler> chain);
 
+   /**
+    * Gets the handler chain for the protocol binding instance, compiled
+    * into an immutable snapshot. The snapshot reflects the chain set by the
+    * last call to {@code setHandlerChain}.
+    * <p>
+    * The default implementation is not memoized: every call copies the
+    * chain with {@link #getHandlerChain()} and compiles the copy, which
+    * inspects all the handlers. Implementations should override it to return a snapshot compiled
+    * by {@code setHandlerChain} and published through a {@code volatile}
+    * field, so that the messages being processed keep using the snapshot
+    * they started with and reconfiguring the chain never blocks them.
+    *
+    *  @return the compiled handler chain, never {@code null}
+    *
+    *  @since JAX-WS 2.4
+    */
+    public default javax.xml.ws.handler.CompiledHandlerChain getCompiledHandlerChain() {
+        return javax.xml.ws.handler.CompiledHandlerChain.compile(getHandlerChain());
+    }
+
     /** 
      * Get the URI for this binding instance. 
      *
@@ -128,6 +128,7 @@ public interface BindingProvider {
      * started.
      *
      * @return The context that is used in processing request messages.
+     * @see LayeredContext
      **/
     Map<String, Object> getRequestContext();
 
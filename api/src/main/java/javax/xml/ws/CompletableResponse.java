@@ -0,0 +1,167 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** A {@code Response} which is also a {@link java.util.concurrent.CompletionStage},
+ *  so that asynchronous operation invocations can be composed without
+ *  blocking a thread per invocation.
+ *
+ *  <p>Instances are returned by {@link Dispatch#invokeAsyncStage}. They may
+ *  also be created directly and passed as {@link #asHandler() AsyncHandler}
+ *  to any asynchronous operation invocation, including the asynchronous
+ *  methods of SEI proxies. The response context is available from
+ *  {@link #getContext()} once this response is complete.</p>
+ *
+ *  <p>Cancelling this response also cancels the operation invocation
+ *  set by {@link #setInvocation(Future)}.</p>
+ *
+ * @param <T> The type of the response
+ *  @since JAX-WS 2.4
+**/
+public class CompletableResponse<T> extends CompletableFuture<T> implements Response<T> {
+
+    private volatile Map<String,Object> context;
+
+    // set by the first completion providing a context, later ones must not replace it
+    private final AtomicBoolean contextSet = new AtomicBoolean();
+
+    private volatile Future<?> invocation;
+
+    /** Creates a new incomplete {@code CompletableResponse}.
+    **/
+    public CompletableResponse() {
+    }
+
+    /** Gets the contained response context.
+     *
+     * @return The contained response context. May be {@code null} if a
+     * response is not yet available.
+    **/
+    @Override
+    public Map<String,Object> getContext() {
+        return context;
+    }
+
+    /** Completes this response with the given value and response context,
+     *  if not already completed. The context is not changed if this
+     *  response has already been completed.
+     *
+     * @param value The response message or message payload
+     * @param context The response context, may be {@code null}
+     * @return {@code true} if this invocation caused this response
+     *     to transition to a completed state, else {@code false}
+    **/
+    public boolean complete(T value, Map<String,Object> context) {
+        return setContext(context) && complete(value);
+    }
+
+    /** Returns an {@code AsyncHandler} which completes this response
+     *  with the result and the context of the {@code Response} it receives.
+     *
+     * @return The handler to pass to an asynchronous operation invocation
+    **/
+    public AsyncHandler<T> asHandler() {
+        return new AsyncHandler<T>() {
+            @Override
+            public void handleResponse(Response<T> res) {
+                CompletableResponse.this.handleResponse(res);
+            }
+        };
+    }
+
+    /** Sets the {@code Future} of the asynchronous operation invocation
+     *  completing this response, which is cancelled when this response is
+     *  cancelled.
+     *
+     * @param invocation The {@code Future} returned by the invocation
+    **/
+    public void setInvocation(Future<?> invocation) {
+        this.invocation = invocation;
+        if (isCancelled()) {
+            invocation.cancel(true);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Future<?> f = invocation;
+        if (cancelled && f != null) {
+            f.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+    // the context has to be published before the completion, dependent stages may read it
+    private boolean setContext(Map<String,Object> context) {
+        if (isDone() || !contextSet.compareAndSet(false, true)) {
+            return false;
+        }
+        this.context = context;
+        return true;
+    }
+
+    private void handleResponse(Response<T> res) {
+        try {
+            // the response is done when the handler is called
+            T value = res.get();
+            complete(value, res.getContext());
+        } catch (ExecutionException e) {
+            if (setContext(res.getContext())) {
+                completeExceptionally(e.getCause() != null ? e.getCause() : e);
+            }
+        } catch (CancellationException e) {
+            cancel(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completeExceptionally(e);
+        } catch (RuntimeException e) {
+            completeExceptionally(e);
+        }
+    }
+}
@@ -112,6 +112,36 @@ public interface Dispatch<T> extends BindingProvider {
     **/
     public Future<?> invokeAsync(T msg, AsyncHandler<T> handler);
 
+    /** Invoke a service operation asynchronously. The
+     *  method returns without waiting for the response to the operation
+     *  invocation, the results of the operation are obtained by composing
+     *  or polling the returned {@code CompletableResponse}, which also
+     *  provides the response context.
+     * <p>
+     * The client is responsible for ensuring that the {@code msg} object
+     * when marshalled is formed according to the requirements of the protocol
+     * binding in use.
+     * <p>
+     * The default implementation calls {@link #invokeAsync(Object, AsyncHandler)}
+     * with {@link CompletableResponse#asHandler()}, so no thread waits for
+     * the response. Dependent stages run on the thread completing the
+     * response, by default a thread of the {@code Service} executor, unless
+     * one of the {@code *Async} methods of {@code CompletionStage} is used.
+     *
+     * @param msg An object that will form the message or payload of
+     *     the message used to invoke the operation.
+     * @return The response message or message payload to the
+     *     operation invocation, as a {@code CompletionStage}.
+     * @throws WebServiceException If there is any error in the configuration of
+     *     the {@code Dispatch} instance
+     * @since JAX-WS 2.4
+    **/
+    public default CompletableResponse<T> invokeAsyncStage(T msg) {
+        CompletableResponse<T> response = new CompletableResponse<T>();
+        response.setInvocation(invokeAsync(msg, response.asHandler()));
+        return response;
+    }
+
     /** Invokes a service operation using the one-way
      *  interaction mode. The operation invocation is logically non-blocking,
      *  subject to the capabilities of the underlying protocol, no results
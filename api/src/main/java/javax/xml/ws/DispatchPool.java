@@ -0,0 +1,571 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.namespace.QName;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.MTOMFeature;
+import javax.xml.ws.spi.ServiceDelegate;
+
+/**
+ * A pool of {@code Dispatch} instances created by a {@code Service}.
+ * <p>
+ * {@code Dispatch} instances are not thread-safe because their request
+ * context is mutable, so concurrent clients typically need one instance
+ * per request. A {@code DispatchPool} lets such clients reuse instances
+ * instead of creating a new one for every request. Instances are pooled
+ * per port name, type, mode and set of {@code WebServiceFeature}s. The
+ * features defined by this specification are compared by value, so
+ * creating them for every lease is fine, other features are compared by
+ * identity. The pool keeps idle instances for at most {@value #MAX_KEYS}
+ * keys, the idle instances of the least recently leased key are dropped
+ * beyond that. A {@link VirtualThreadFeature} is ignored: it selects the
+ * executor of a {@code Service}, not a property of its {@code Dispatch}
+ * instances, and is not passed to the JAX-WS implementation.
+ * <pre>
+ * try (DispatchPool.Lease&lt;Source&gt; lease = pool.lease(portName, Source.class, Service.Mode.PAYLOAD)) {
+ *     Source response = lease.get().invoke(request);
+ *     ...
+ * }
+ * </pre>
+ * When a lease is closed, the request context of its {@code Dispatch} is
+ * restored to the state it had when the instance was created and the
+ * instance is returned to the pool, unless the pool already holds the
+ * maximum number of idle instances for that key or in total. The values
+ * of {@link MessageContext#HTTP_REQUEST_HEADERS} and
+ * {@link MessageContext#REFERENCE_PARAMETERS} are restored even if they
+ * were modified in place, other values are restored by reference. Other
+ * changes made to the instance, for example to its handler chain or to
+ * a mutable value of a non-standard property, are not reverted, such
+ * instances should be {@link Lease#discard() discarded}.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Service#getDispatchPool()
+ * @see ServiceDelegate#getDispatchPool()
+ * @since JAX-WS 2.4
+ */
+public class DispatchPool {
+
+    /**
+     * Default maximum number of idle instances kept per key.
+     */
+    public static final int DEFAULT_MAX_IDLE = 16;
+
+    /**
+     * Default maximum number of idle instances kept in total.
+     */
+    public static final int DEFAULT_MAX_TOTAL_IDLE = 64;
+
+    /**
+     * Maximum number of keys the pool keeps idle instances for.
+     */
+    public static final int MAX_KEYS = 64;
+
+    private final ServiceDelegate delegate;
+    private final int maxIdle;
+    private final int maxTotalIdle;
+
+    // in access order, guarded by itself
+    private final Map<Key, Slot> slots = new LinkedHashMap<Key, Slot>(16, 0.75f, true);
+
+    private final AtomicInteger totalIdle = new AtomicInteger();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Creates a pool of {@code Dispatch} instances created by the given
+     * {@code delegate} keeping at most {@link #DEFAULT_MAX_IDLE} idle
+     * instances per key and {@link #DEFAULT_MAX_TOTAL_IDLE} in total.
+     *
+     * @param delegate the service delegate creating {@code Dispatch} instances
+     */
+    public DispatchPool(ServiceDelegate delegate) {
+        this(delegate, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a pool of {@code Dispatch} instances created by the given
+     * {@code delegate} keeping at most {@link #DEFAULT_MAX_TOTAL_IDLE}
+     * idle instances in total.
+     *
+     * @param delegate the service delegate creating {@code Dispatch} instances
+     * @param maxIdle maximum number of idle instances kept per key
+     * @throws IllegalArgumentException if {@code maxIdle} is negative
+     */
+    public DispatchPool(ServiceDelegate delegate, int maxIdle) {
+        this(delegate, maxIdle, Math.max(maxIdle, DEFAULT_MAX_TOTAL_IDLE));
+    }
+
+    /**
+     * Creates a pool of {@code Dispatch} instances created by the given
+     * {@code delegate}.
+     *
+     * @param delegate the service delegate creating {@code Dispatch} instances
+     * @param maxIdle maximum number of idle instances kept per key
+     * @param maxTotalIdle maximum number of idle instances kept in total
+     * @throws IllegalArgumentException if {@code maxIdle} or {@code maxTotalIdle}
+     *         is negative
+     */
+    public DispatchPool(ServiceDelegate delegate, int maxIdle, int maxTotalIdle) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("The delegate cannot be null.");
+        }
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("The maxIdle cannot be negative: " + maxIdle);
+        }
+        if (maxTotalIdle < 0) {
+            throw new IllegalArgumentException("The maxTotalIdle cannot be negative: " + maxTotalIdle);
+        }
+        this.delegate = delegate;
+        this.maxIdle = maxIdle;
+        this.maxTotalIdle = maxTotalIdle;
+    }
+
+    /**
+     * Leases a {@code Dispatch} instance, creating a new one using
+     * {@link ServiceDelegate#createDispatch(QName, Class, Service.Mode, WebServiceFeature...)}
+     * if there is no idle instance for the given arguments. This method
+     * never blocks waiting for an instance to be returned.
+     *
+     * @param <T> The type of the message or payload
+     * @param portName  Qualified name for the target service endpoint
+     * @param type The class of object used for messages or message payloads
+     * @param mode Controls whether the dispatch instance is message
+     *        or payload oriented
+     * @param features  A list of {@code WebServiceFeatures} to configure on the
+     *        instance, see the class description for how they are compared
+     * @return the lease of a {@code Dispatch} instance, never {@code null}
+     * @throws WebServiceException If any error in the creation of
+     *         the {@code Dispatch} object
+     */
+    public <T> Lease<T> lease(QName portName, Class<T> type,
+            Service.Mode mode, WebServiceFeature... features) {
+        features = VirtualThreadFeature.remove(features);
+        Key key = new Key(portName, type, mode, features);
+        Slot slot;
+        Slot evicted = null;
+        synchronized (slots) {
+            slot = slots.get(key);
+            if (slot == null) {
+                slot = new Slot();
+                slots.put(key, slot);
+                if (slots.size() > MAX_KEYS) {
+                    Iterator<Slot> eldest = slots.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        if (evicted != null) {
+            evict(evicted);
+        }
+        leases.incrementAndGet();
+        Pooled pooled = slot.idle.poll();
+        if (pooled != null) {
+            slot.idleCount.decrementAndGet();
+            totalIdle.decrementAndGet();
+            reused.incrementAndGet();
+        } else {
+            Dispatch<?> dispatch = delegate.createDispatch(portName, type, mode, features);
+            created.incrementAndGet();
+            pooled = new Pooled(dispatch, copyRequestContext(dispatch.getRequestContext()));
+        }
+        active.incrementAndGet();
+        return new Lease<T>(slot, pooled);
+    }
+
+    /**
+     * Returns the maximum number of idle instances kept per key.
+     *
+     * @return maximum number of idle instances kept per key
+     */
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Returns the maximum number of idle instances kept in total.
+     *
+     * @return maximum number of idle instances kept in total
+     */
+    public int getMaxTotalIdle() {
+        return maxTotalIdle;
+    }
+
+    /**
+     * Returns the number of {@code Dispatch} instances created by this pool.
+     *
+     * @return number of created instances
+     */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * Returns the number of leases handed out by this pool.
+     *
+     * @return number of leases
+     */
+    public long getLeaseCount() {
+        return leases.get();
+    }
+
+    /**
+     * Returns the number of leases served by an idle instance.
+     *
+     * @return number of leases served without creating a new instance
+     */
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    /**
+     * Returns the number of instances which were not kept by the pool,
+     * either because they were discarded, because the pool already held
+     * the maximum number of idle instances or because their key was
+     * dropped.
+     *
+     * @return number of discarded instances
+     */
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    /**
+     * Returns the number of instances currently leased.
+     *
+     * @return number of leases which have not been closed yet
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Returns the number of idle instances currently kept by the pool.
+     *
+     * @return number of idle instances
+     */
+    public int getIdleCount() {
+        return totalIdle.get();
+    }
+
+    /**
+     * Removes all idle instances from the pool. Leased instances
+     * are returned to the pool when their lease is closed.
+     */
+    public void clear() {
+        List<Slot> all;
+        synchronized (slots) {
+            all = new ArrayList<Slot>(slots.values());
+        }
+        for (Slot slot : all) {
+            drain(slot);
+        }
+    }
+
+    private void release(Slot slot, Pooled pooled, boolean reuse) {
+        active.decrementAndGet();
+        boolean kept = false;
+        try {
+            kept = reuse && offer(slot, pooled);
+        } finally {
+            // also counts instances whose request context could not be reset
+            if (!kept) {
+                discarded.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean offer(Slot slot, Pooled pooled) {
+        if (slot.idleCount.get() >= maxIdle || totalIdle.get() >= maxTotalIdle) {
+            // full, no need to reset the instance
+            return false;
+        }
+        // reset before counting the instance as idle, the reset may fail
+        Map<String, Object> context = pooled.dispatch.getRequestContext();
+        if (!context.equals(pooled.requestContext)) {
+            context.clear();
+            context.putAll(copyRequestContext(pooled.requestContext));
+        }
+        if (slot.idleCount.incrementAndGet() > maxIdle) {
+            slot.idleCount.decrementAndGet();
+            return false;
+        }
+        if (totalIdle.incrementAndGet() > maxTotalIdle) {
+            totalIdle.decrementAndGet();
+            slot.idleCount.decrementAndGet();
+            return false;
+        }
+        synchronized (slot) {
+            if (!slot.evicted) {
+                slot.idle.offer(pooled);
+                return true;
+            }
+        }
+        totalIdle.decrementAndGet();
+        slot.idleCount.decrementAndGet();
+        return false;
+    }
+
+    // the key of the slot has been dropped, instances leased from it are discarded on release
+    private void evict(Slot slot) {
+        synchronized (slot) {
+            slot.evicted = true;
+        }
+        drain(slot);
+    }
+
+    private void drain(Slot slot) {
+        while (slot.idle.poll() != null) {
+            slot.idleCount.decrementAndGet();
+            totalIdle.decrementAndGet();
+            discarded.incrementAndGet();
+        }
+    }
+
+    /**
+     * Copies the request context, including the mutable values of the
+     * standard properties, so that in-place changes made by one lease
+     * can be reverted.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copyRequestContext(Map<String, Object> context) {
+        Map<String, Object> copy = new HashMap<String, Object>(context);
+        Object headers = copy.get(MessageContext.HTTP_REQUEST_HEADERS);
+        if (headers instanceof Map) {
+            Map<String, List<String>> headersCopy = new HashMap<String, List<String>>();
+            for (Map.Entry<String, List<String>> e : ((Map<String, List<String>>) headers).entrySet()) {
+                headersCopy.put(e.getKey(), e.getValue() == null ? null : new ArrayList<String>(e.getValue()));
+            }
+            copy.put(MessageContext.HTTP_REQUEST_HEADERS, headersCopy);
+        }
+        Object referenceParameters = copy.get(MessageContext.REFERENCE_PARAMETERS);
+        if (referenceParameters instanceof List) {
+            copy.put(MessageContext.REFERENCE_PARAMETERS, new ArrayList<Object>((List<Object>) referenceParameters));
+        }
+        return copy;
+    }
+
+    /**
+     * A {@code Dispatch} instance leased from a {@code DispatchPool}.
+     * Closing the lease returns the instance to the pool. The instance
+     * MUST NOT be used after the lease has been closed.
+     *
+     * @param <T> The type of the message or payload
+     */
+    public final class Lease<T> implements AutoCloseable {
+
+        private final Slot slot;
+        private final Pooled pooled;
+        private boolean closed;
+
+        Lease(Slot slot, Pooled pooled) {
+            this.slot = slot;
+            this.pooled = pooled;
+        }
+
+        /**
+         * Returns the leased {@code Dispatch} instance.
+         *
+         * @return the leased instance
+         * @throws IllegalStateException if the lease has been closed
+         */
+        @SuppressWarnings("unchecked")
+        public Dispatch<T> get() {
+            if (closed) {
+                throw new IllegalStateException("The lease has been closed.");
+            }
+            return (Dispatch<T>) pooled.dispatch;
+        }
+
+        /**
+         * Closes the lease without returning the instance to the pool, for
+         * example when its state other than the request context has been
+         * changed.
+         */
+        public void discard() {
+            if (!closed) {
+                closed = true;
+                release(slot, pooled, false);
+            }
+        }
+
+        /**
+         * Resets the request context of the leased instance and returns
+         * the instance to the pool. Closing a closed lease has no effect.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(slot, pooled, true);
+            }
+        }
+    }
+
+    private static final class Pooled {
+        final Dispatch<?> dispatch;
+        final Map<String, Object> requestContext;
+
+        Pooled(Dispatch<?> dispatch, Map<String, Object> requestContext) {
+            this.dispatch = dispatch;
+            this.requestContext = requestContext;
+        }
+    }
+
+    private static final class Slot {
+        final ConcurrentLinkedQueue<Pooled> idle = new ConcurrentLinkedQueue<Pooled>();
+        // ConcurrentLinkedQueue.size() is not a constant-time operation
+        final AtomicInteger idleCount = new AtomicInteger();
+        // guarded by this
+        boolean evicted;
+    }
+
+    private static final class Key {
+        private final QName portName;
+        private final Class<?> type;
+        private final Service.Mode mode;
+        private final WebServiceFeature[] features;
+        private final int hash;
+
+        Key(QName portName, Class<?> type, Service.Mode mode, WebServiceFeature[] features) {
+            this.portName = portName;
+            this.type = type;
+            this.mode = mode;
+            this.features = features == null ? new WebServiceFeature[0] : features.clone();
+            int h = portName == null ? 0 : portName.hashCode();
+            h = 31 * h + (type == null ? 0 : type.hashCode());
+            h = 31 * h + (mode == null ? 0 : mode.hashCode());
+            this.hash = 31 * h + hashCode(this.features);
+        }
+
+        private static int hashCode(WebServiceFeature[] features) {
+            int h = 1;
+            for (WebServiceFeature f : features) {
+                h = 31 * h + hashCode(f);
+            }
+            return h;
+        }
+
+        private static int hashCode(WebServiceFeature f) {
+            if (f == null || !isStandard(f)) {
+                return System.identityHashCode(f);
+            }
+            int h = 31 * f.getClass().hashCode() + (f.isEnabled() ? 1 : 0);
+            if (f instanceof AddressingFeature) {
+                AddressingFeature a = (AddressingFeature) f;
+                h = 31 * (31 * h + (a.isRequired() ? 1 : 0))
+                        + (a.getResponses() == null ? 0 : a.getResponses().hashCode());
+            } else if (f instanceof MTOMFeature) {
+                h = 31 * h + ((MTOMFeature) f).getThreshold();
+            }
+            return h;
+        }
+
+        // the parameters of features not defined by this specification are unknown
+        private static boolean isStandard(WebServiceFeature f) {
+            Class<?> c = f.getClass();
+            return c == AddressingFeature.class || c == MTOMFeature.class
+                    || c == RespectBindingFeature.class;
+        }
+
+        private static boolean equal(WebServiceFeature a, WebServiceFeature b) {
+            if (a == b) {
+                return true;
+            }
+            if (a == null || b == null || a.getClass() != b.getClass()
+                    || !isStandard(a) || a.isEnabled() != b.isEnabled()) {
+                return false;
+            }
+            if (a instanceof AddressingFeature) {
+                AddressingFeature x = (AddressingFeature) a;
+                AddressingFeature y = (AddressingFeature) b;
+                return x.isRequired() == y.isRequired() && x.getResponses() == y.getResponses();
+            }
+            if (a instanceof MTOMFeature) {
+                return ((MTOMFeature) a).getThreshold() == ((MTOMFeature) b).getThreshold();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            if (hash != k.hash || type != k.type || mode != k.mode
+                    || !(portName == null ? k.portName == null : portName.equals(k.portName))
+                    || features.length != k.features.length) {
+                return false;
+            }
+            for (int i = 0; i < features.length; i++) {
+                if (!equal(features[i], k.features[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
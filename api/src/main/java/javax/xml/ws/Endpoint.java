@@ -130,6 +130,7 @@ public abstract class Endpoint {
      * @param features A list of WebServiceFeature to configure on the
      *        endpoint. Supported features not in the {@code features
      *        } parameter will have their default values.
+     *        A {@link VirtualThreadFeature} sets the executor of the endpoint.
      *
      *
      * @return The newly created endpoint.
@@ -178,12 +179,19 @@ public abstract class Endpoint {
      * @param features A list of WebServiceFeature to configure on the
      *        endpoint. Supported features not in the {@code features
      *        } parameter will have their default values.
+     *        A {@link VirtualThreadFeature} sets the executor of the endpoint.
      *
      * @return The newly created endpoint.
      * @since 1.7, JAX-WS 2.2
      */
     public static Endpoint create(String bindingId, Object implementor, WebServiceFeature ... features) {
-        return Provider.provider().createEndpoint(bindingId, implementor, features);
+        Endpoint endpoint = Provider.provider().createEndpoint(bindingId, implementor,
+                VirtualThreadFeature.remove(features));
+        VirtualThreadFeature virtualThreads = VirtualThreadFeature.find(features);
+        if (virtualThreads != null && virtualThreads.isEnabled()) {
+            endpoint.setExecutor(virtualThreads.createExecutor());
+        }
+        return endpoint;
     }
 
     /**
@@ -274,6 +282,7 @@ public abstract class Endpoint {
      * @param features A list of WebServiceFeature to configure on the
      *        endpoint. Supported features not in the {@code features
      *        } parameter will have their default values.
+     *        A {@link VirtualThreadFeature} sets the executor of the endpoint.
      * @return The newly created endpoint.
      *
      * @throws java.lang.SecurityException
@@ -283,7 +292,15 @@ public abstract class Endpoint {
      * @since 1.7, JAX-WS 2.2
      */
     public static Endpoint publish(String address, Object implementor, WebServiceFeature ... features) {
-        return Provider.provider().createAndPublishEndpoint(address, implementor, features);
+        VirtualThreadFeature virtualThreads = VirtualThreadFeature.find(features);
+        if (virtualThreads != null && virtualThreads.isEnabled()) {
+            // the executor must be set before the endpoint is published
+            Endpoint endpoint = create(null, implementor, features);
+            endpoint.publish(address);
+            return endpoint;
+        }
+        return Provider.provider().createAndPublishEndpoint(address, implementor,
+                VirtualThreadFeature.remove(features));
     }
 
     /**
@@ -46,7 +46,10 @@ import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.ws.spi.Provider;
 import javax.xml.ws.wsaddressing.W3CEndpointReference;
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
 
 /**
  * This class represents an WS-Addressing EndpointReference
@@ -212,4 +215,67 @@ public abstract class EndpointReference {
         writeTo(new StreamResult(w));
         return w.toString();
     }
+
+    /**
+     * Appends the EPR infoset, as returned by {@link #toString()}, to the
+     * given {@code appendable}. This allows the infoset to be written to
+     * an existing buffer, for example by loggers, without creating
+     * an intermediate {@code String}.
+     * <p>
+     * The default implementation writes the infoset directly to
+     * {@code appendable}, through a {@link Writer} if it is not one.
+     *
+     * @param appendable the destination of the infoset
+     * @throws WebServiceException
+     *   if there is an error writing the
+     *   {@code EndpointReference} to the {@code appendable}.
+     * @throws java.lang.NullPointerException
+     *      If the {@code null} {@code appendable} value is given.
+     *
+     * @since JAX-WS 2.4
+     */
+    public void appendTo(Appendable appendable) {
+        Writer w = appendable instanceof Writer
+                ? (Writer) appendable : new AppendableWriter(appendable);
+        writeTo(new StreamResult(w));
+    }
+
+    // streams the characters written to it into an Appendable
+    private static final class AppendableWriter extends Writer {
+        private final Appendable appendable;
+
+        AppendableWriter(Appendable appendable) {
+            if (appendable == null) {
+                throw new NullPointerException("appendable");
+            }
+            this.appendable = appendable;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (appendable instanceof StringBuilder) {
+                ((StringBuilder) appendable).append(cbuf, off, len);
+            } else {
+                appendable.append(CharBuffer.wrap(cbuf, off, len));
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            appendable.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            appendable.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
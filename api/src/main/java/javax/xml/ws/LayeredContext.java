@@ -0,0 +1,558 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A request or response context made of an immutable base, which can be
+ * shared by many contexts, and a small copy-on-write overlay holding the
+ * changes made to this context.
+ * <p>
+ * The base typically holds the configuration of a proxy or a
+ * {@code Dispatch}, such as the endpoint address, the credentials and the
+ * SOAPAction properties. Reading a property looks it up in the overlay and
+ * then in the base, writing it only changes the overlay, so the base is
+ * never copied. {@link #fork()} creates a context with the same base and
+ * overlay in constant time, the overlay is copied by the first of the two
+ * contexts which is modified. JAX-WS implementations can thus fork the
+ * request context when an operation is started, which makes later changes
+ * invisible to the operations already started, as required by
+ * {@link BindingProvider#getRequestContext()}.
+ * <p>
+ * {@link PerThread} keeps one such context per thread on top of a shared
+ * base, for implementations which offer per-thread request contexts.
+ * <p>
+ * {@code LayeredContext} instances are not thread-safe.
+ *
+ * @see BindingProvider#getRequestContext()
+ * @since JAX-WS 2.4
+ */
+public class LayeredContext extends AbstractMap<String, Object> {
+
+    // overlay value of a property of the base removed from this context
+    private static final Object REMOVED = new Object();
+
+    private Map<String, Object> base;
+
+    // null if empty
+    private Map<String, Object> overlay;
+
+    // whether overlay is shared with a forked context
+    private boolean overlayShared;
+
+    private Set<Entry<String, Object>> entrySet;
+
+    /**
+     * Creates an empty {@code LayeredContext}.
+     */
+    public LayeredContext() {
+        this.base = Collections.emptyMap();
+    }
+
+    /**
+     * Creates a {@code LayeredContext} on top of the given base. The base
+     * is not copied and must not be modified afterwards, see {@link #freeze}.
+     *
+     * @param base the immutable base properties
+     */
+    public LayeredContext(Map<String, Object> base) {
+        if (base == null) {
+            throw new NullPointerException("base");
+        }
+        this.base = base;
+    }
+
+    /**
+     * Returns an immutable copy of the given properties, suitable as base
+     * of {@code LayeredContext}s.
+     *
+     * @param properties the properties to copy
+     * @return an immutable map of the properties
+     */
+    public static Map<String, Object> freeze(Map<String, Object> properties) {
+        if (properties.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(new HashMap<String, Object>(properties));
+    }
+
+    /**
+     * Returns the base of this context.
+     *
+     * @return the immutable base properties
+     */
+    public Map<String, Object> getBase() {
+        return base;
+    }
+
+    /**
+     * Returns whether this context has been changed with respect to its base.
+     *
+     * @return {@code true} if properties have been added, changed
+     *         or removed since this context was created on top of its base
+     */
+    public boolean isModified() {
+        return overlay != null && !overlay.isEmpty();
+    }
+
+    /**
+     * Creates a new context with the same base and the same
+     * properties as this context. This does not copy any map; the
+     * properties changed in this context are copied by the first of the
+     * two contexts which is modified.
+     *
+     * @return the new context
+     */
+    public LayeredContext fork() {
+        LayeredContext forked = new LayeredContext(base);
+        if (overlay != null) {
+            forked.overlay = overlay;
+            forked.overlayShared = true;
+            overlayShared = true;
+        }
+        return forked;
+    }
+
+    /**
+     * Returns the properties of this context as an immutable map. If this
+     * context has not been modified, this is its base; otherwise the
+     * properties are copied.
+     *
+     * @return an immutable map of the properties of this context
+     */
+    public Map<String, Object> snapshot() {
+        return isModified() ? freeze(this) : base;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (overlay != null) {
+            Object value = overlay.get(key);
+            if (value != null || overlay.containsKey(key)) {
+                return value == REMOVED ? null : value;
+            }
+        }
+        return base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (overlay != null) {
+            Object value = overlay.get(key);
+            if (value != null || overlay.containsKey(key)) {
+                return value != REMOVED;
+            }
+        }
+        return base.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object old = get(key);
+        writableOverlay().put(key, value);
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!containsKey(key)) {
+            return null;
+        }
+        Object old = get(key);
+        if (base.containsKey(key)) {
+            writableOverlay().put((String) key, REMOVED);
+        } else {
+            writableOverlay().remove(key);
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        // keep the base, which may be shared, and hide its properties
+        Map<String, Object> cleared = new HashMap<String, Object>();
+        for (String key : base.keySet()) {
+            cleared.put(key, REMOVED);
+        }
+        overlay = cleared;
+        overlayShared = false;
+    }
+
+    @Override
+    public int size() {
+        int size = base.size();
+        if (overlay != null) {
+            for (Entry<String, Object> e : overlay.entrySet()) {
+                boolean inBase = base.containsKey(e.getKey());
+                if (e.getValue() == REMOVED) {
+                    if (inBase) {
+                        size--;
+                    }
+                } else if (!inBase) {
+                    size++;
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return LayeredContext.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private Map<String, Object> writableOverlay() {
+        if (overlay == null) {
+            overlay = new HashMap<String, Object>(8);
+        } else if (overlayShared) {
+            overlay = new HashMap<String, Object>(overlay);
+            overlayShared = false;
+        }
+        return overlay;
+    }
+
+    // replaces the base, dropping the removal markers of the properties
+    // which are not in the new base
+    private void rebase(Map<String, Object> newBase) {
+        base = newBase;
+        if (overlay == null || !overlay.containsValue(REMOVED)) {
+            return;
+        }
+        Iterator<Entry<String, Object>> it = writableOverlay().entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<String, Object> e = it.next();
+            if (e.getValue() == REMOVED && !newBase.containsKey(e.getKey())) {
+                it.remove();
+            }
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        // changed properties first, then the unchanged base properties;
+        // iterates over a copy of the overlay as remove() may change it
+        private final Map<String, Object> changedSnapshot = overlay == null
+                ? Collections.<String, Object>emptyMap() : new HashMap<String, Object>(overlay);
+        private final Iterator<String> changed = changedSnapshot.keySet().iterator();
+        private final Iterator<String> unchanged = base.keySet().iterator();
+        private String next;
+        private String last;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && changed.hasNext()) {
+                String key = changed.next();
+                if (changedSnapshot.get(key) != REMOVED) {
+                    next = key;
+                }
+            }
+            while (next == null && unchanged.hasNext()) {
+                String key = unchanged.next();
+                if (!changedSnapshot.containsKey(key)) {
+                    next = key;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return new PropertyEntry(LayeredContext.this, last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            LayeredContext.this.remove(last);
+            last = null;
+        }
+    }
+
+    private static final class PropertyEntry implements Entry<String, Object> {
+        private final Map<String, Object> context;
+        private final String key;
+
+        PropertyEntry(Map<String, Object> context, String key) {
+            this.context = context;
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return context.get(key);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return context.put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            Object value = getValue();
+            return key.equals(e.getKey())
+                    && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    /**
+     * A request context which can be shared by many threads. It consists of
+     * a shared base, replaced with {@link #setBase}, and one
+     * {@code LayeredContext} per thread holding the changes made by that
+     * thread, which is only created when the thread changes a property.
+     * <p>
+     * Changes made to a {@code PerThread} context are not seen by other
+     * threads, so it must not be returned from
+     * {@link BindingProvider#getRequestContext()}, whose changes apply to
+     * all the threads using the {@code BindingProvider}. JAX-WS
+     * implementations can use it internally when the application opts in
+     * to per-thread request contexts, and start every operation with
+     * {@link #fork()}.
+     */
+    public static final class PerThread extends AbstractMap<String, Object> {
+
+        private volatile Map<String, Object> base;
+
+        private final ThreadLocal<LayeredContext> contexts = new ThreadLocal<LayeredContext>();
+
+        private Set<Entry<String, Object>> entrySet;
+
+        /**
+         * Creates a {@code PerThread} context with the given shared
+         * base properties, which are copied.
+         *
+         * @param base the shared base properties
+         */
+        public PerThread(Map<String, Object> base) {
+            this.base = freeze(base);
+        }
+
+        /**
+         * Replaces the shared base properties, which are copied. The
+         * changes already made by threads remain on top of the new base.
+         *
+         * @param base the shared base properties
+         */
+        public void setBase(Map<String, Object> base) {
+            this.base = freeze(base);
+        }
+
+        /**
+         * Returns the shared base properties.
+         *
+         * @return the immutable shared base properties
+         */
+        public Map<String, Object> getBase() {
+            return base;
+        }
+
+        /**
+         * Returns the context of the current thread, creating it if needed.
+         *
+         * @return the context of the current thread
+         */
+        public LayeredContext current() {
+            Map<String, Object> b = base;
+            LayeredContext context = contexts.get();
+            if (context == null) {
+                context = new LayeredContext(b);
+                contexts.set(context);
+            } else if (context.base != b) {
+                // the shared base has been replaced
+                context.rebase(b);
+            }
+            return context;
+        }
+
+        /**
+         * Returns a new context with the properties the current thread sees,
+         * for an operation started by the current thread. The returned
+         * context is not affected by later changes of this context.
+         *
+         * @return the context of the operation
+         */
+        public LayeredContext fork() {
+            LayeredContext context = contexts.get();
+            return context == null ? new LayeredContext(base) : current().fork();
+        }
+
+        /**
+         * Discards the changes made by the current thread.
+         */
+        public void reset() {
+            contexts.remove();
+        }
+
+        private Map<String, Object> view() {
+            LayeredContext context = contexts.get();
+            return context == null ? base : current();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return view().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return view().containsKey(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return current().put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return current().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            current().clear();
+        }
+
+        @Override
+        public int size() {
+            return view().size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new AbstractSet<Entry<String, Object>>() {
+                    @Override
+                    public Iterator<Entry<String, Object>> iterator() {
+                        if (contexts.get() != null) {
+                            return current().entrySet().iterator();
+                        }
+                        // the thread has not changed anything: iterate over
+                        // the base, creating the context only on writes
+                        return new BaseIterator(base.keySet().iterator());
+                    }
+
+                    @Override
+                    public int size() {
+                        return PerThread.this.size();
+                    }
+                };
+            }
+            return entrySet;
+        }
+
+        private final class BaseIterator implements Iterator<Entry<String, Object>> {
+            private final Iterator<String> keys;
+            private String last;
+
+            BaseIterator(Iterator<String> keys) {
+                this.keys = keys;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+                last = keys.next();
+                return new PropertyEntry(PerThread.this, last);
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                PerThread.this.remove(last);
+                last = null;
+            }
+        }
+    }
+}
@@ -40,6 +40,8 @@
 
 package javax.xml.ws;
 
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.bind.JAXBContext;
 
@@ -104,4 +106,65 @@ public interface LogicalMessage {
    *     the WebServiceException is the original JAXBException.
   **/
   public void setPayload(Object payload, JAXBContext context);
+
+  /** Gets the message payload as a one-shot stream of XML events, without
+   *  building a DOM. The reader is positioned at the start of the payload,
+   *  before its root element. Reading from it does not change the payload
+   *  seen by other handlers and by the JAX-WS runtime.
+   *
+   *  <p>Unless {@link #buffer()} has been called, this method may be called
+   *  at most once per handler invocation, and {@code getPayload} may not
+   *  be called after it; implementations may throw an
+   *  {@code IllegalStateException} otherwise. Handlers that only look at the
+   *  root element or at a few leading elements should read only what they
+   *  need and then close the reader.
+   *
+   *  <p>The default implementation creates a reader for the new
+   *  {@code Source} returned by {@link #getPayload()}; a {@code DOMSource}
+   *  or a {@code SAXSource} with an {@code XMLReader} is serialized first.
+   *  JAX-WS implementations should override this method.
+   *
+   *  @return A reader of the contained message payload; returns {@code null}
+   *          if no payload is present in this message.
+   *  @throws WebServiceException If an error occurs when creating the reader
+   *  @since JAX-WS 2.4
+  **/
+  public default XMLStreamReader readPayload() {
+    return PayloadReaders.create(this);
+  }
+
+  /** Gets the name of the root element of the message payload. This is
+   *  the cheapest way to look at a payload: implementations that stream
+   *  payloads usually know the name without reading the payload.
+   *
+   *  <p>The default implementation takes the name of the root element of a
+   *  {@code DOMSource} payload, and otherwise reads the new {@code Source}
+   *  returned by {@link #getPayload()} up to its root element; it neither
+   *  copies nor sets the payload. Implementations overriding
+   *  {@code readPayload} should override this method as well.
+   *
+   *  @return The name of the root element of the payload; returns
+   *          {@code null} if no payload is present in this message.
+   *  @throws WebServiceException If an error occurs when reading the payload
+   *  @since JAX-WS 2.4
+  **/
+  public default QName getPayloadName() {
+    return PayloadReaders.getName(this);
+  }
+
+  /** Makes the message payload readable any number of times, so that
+   *  {@link #readPayload()} and {@code getPayload} can both be called
+   *  repeatedly afterwards. Handlers which need to read the payload more
+   *  than once call this method first; it may be expensive for large
+   *  payloads.
+   *
+   *  <p>The default implementation does nothing, as the payload returned
+   *  by {@link #getPayload()} can always be read multiple times.
+   *
+   *  @throws WebServiceException If an error occurs when buffering
+   *          the payload
+   *  @since JAX-WS 2.4
+  **/
+  public default void buffer() {
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Bounded pools of {@code Marshaller}s and {@code Unmarshaller}s
+ * per {@code JAXBContext}.
+ * <p>
+ * The pools are kept in a {@code WeakHashMap} keyed by the context. As
+ * the pooled instances reference their context, the pools are softly
+ * referenced, so that an unused context can be collected. Looking a pool
+ * up takes a lock, as does acquiring an instance from it.
+ * <p>
+ * Instances which failed are not released, as they may be left in an
+ * inconsistent state.
+ */
+final class MarshallerPool {
+
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final Map<JAXBContext, SoftReference<MarshallerPool>> POOLS =
+            new WeakHashMap<JAXBContext, SoftReference<MarshallerPool>>();
+
+    private final JAXBContext context;
+    private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<Marshaller>(POOL_SIZE);
+    private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<Unmarshaller>(POOL_SIZE);
+
+    private MarshallerPool(JAXBContext context) {
+        this.context = context;
+    }
+
+    static MarshallerPool of(JAXBContext context) {
+        synchronized (POOLS) {
+            SoftReference<MarshallerPool> ref = POOLS.get(context);
+            MarshallerPool pool = ref == null ? null : ref.get();
+            if (pool == null) {
+                pool = new MarshallerPool(context);
+                POOLS.put(context, new SoftReference<MarshallerPool>(pool));
+            }
+            return pool;
+        }
+    }
+
+    Marshaller acquireMarshaller() throws JAXBException {
+        Marshaller m = marshallers.poll();
+        return m != null ? m : context.createMarshaller();
+    }
+
+    void releaseMarshaller(Marshaller m) {
+        marshallers.offer(m);
+    }
+
+    Unmarshaller acquireUnmarshaller() throws JAXBException {
+        Unmarshaller u = unmarshallers.poll();
+        return u != null ? u : context.createUnmarshaller();
+    }
+
+    void releaseUnmarshaller(Unmarshaller u) {
+        unmarshallers.offer(u);
+    }
+}
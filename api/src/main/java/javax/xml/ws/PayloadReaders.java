@@ -0,0 +1,264 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Implements the default {@link LogicalMessage#readPayload()} and
+ * {@link LogicalMessage#getPayloadName()} on top of
+ * {@link LogicalMessage#getPayload()}.
+ *
+ * <p>Each call to {@code getPayload} returns a new {@code Source}, so a
+ * stream source is read directly and never buffered, and the payload of the
+ * message is never set. Only a payload which StAX cannot read, such as a
+ * {@code DOMSource}, is serialized by {@link LogicalMessage#readPayload()}.
+ */
+final class PayloadReaders {
+
+    private static final XMLInputFactory INPUT;
+
+    // TransformerFactory is not thread-safe, newTransformer() is synchronized on it
+    private static final TransformerFactory TRANSFORMER = TransformerFactory.newInstance();
+
+    static {
+        INPUT = XMLInputFactory.newInstance();
+        INPUT.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        INPUT.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        INPUT.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    private PayloadReaders() {}
+
+    static XMLStreamReader create(LogicalMessage message) {
+        Source source = message.getPayload();
+        if (source == null) {
+            return null;
+        }
+        try {
+            if (source instanceof StAXSource && ((StAXSource) source).getXMLStreamReader() != null) {
+                return ((StAXSource) source).getXMLStreamReader();
+            }
+            StreamSource stream = toStreamSource(source);
+            if (stream != null) {
+                return INPUT.createXMLStreamReader(stream);
+            }
+            // e.g. a DOMSource: reading the DOM does not consume it
+            return INPUT.createXMLStreamReader(new ByteArrayInputStream(serialize(source)));
+        } catch (XMLStreamException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    static QName getName(LogicalMessage message) {
+        Source source = message.getPayload();
+        if (source == null) {
+            return null;
+        }
+        try {
+            if (source instanceof DOMSource) {
+                return nameOf(rootElement(((DOMSource) source).getNode()));
+            }
+            if (source instanceof StAXSource) {
+                StAXSource stax = (StAXSource) source;
+                return stax.getXMLStreamReader() != null
+                        ? rootName(stax.getXMLStreamReader())
+                        : rootName(stax.getXMLEventReader());
+            }
+            StreamSource stream = toStreamSource(source);
+            if (stream != null) {
+                XMLStreamReader reader = INPUT.createXMLStreamReader(stream);
+                try {
+                    return rootName(reader);
+                } finally {
+                    reader.close();
+                }
+            }
+            if (source instanceof SAXSource) {
+                return rootName((SAXSource) source);
+            }
+            throw new WebServiceException("Unsupported payload source: " + source.getClass().getName());
+        } catch (XMLStreamException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    // Returns source as a StreamSource which StAX can read, or null
+    private static StreamSource toStreamSource(Source source) {
+        if (source instanceof StreamSource) {
+            return (StreamSource) source;
+        }
+        if (source instanceof SAXSource && ((SAXSource) source).getXMLReader() == null) {
+            InputSource input = ((SAXSource) source).getInputSource();
+            if (input == null) {
+                return null;
+            }
+            StreamSource stream = new StreamSource(input.getSystemId());
+            stream.setPublicId(input.getPublicId());
+            stream.setInputStream(input.getByteStream());
+            stream.setReader(input.getCharacterStream());
+            return stream;
+        }
+        return null;
+    }
+
+    // Reads up to the root element, which is not consumed
+    private static QName rootName(XMLStreamReader reader) throws XMLStreamException {
+        int event = reader.getEventType();
+        while (event != XMLStreamConstants.START_ELEMENT && reader.hasNext()) {
+            event = reader.next();
+        }
+        return event == XMLStreamConstants.START_ELEMENT ? reader.getName() : null;
+    }
+
+    private static QName rootName(XMLEventReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            XMLEvent event = reader.peek();
+            if (event.isStartElement()) {
+                return event.asStartElement().getName();
+            }
+            reader.nextEvent();
+        }
+        return null;
+    }
+
+    // Parses up to the root element, e.g. of a JAXBSource
+    private static QName rootName(SAXSource source) {
+        RootNameHandler handler = new RootNameHandler();
+        XMLReader reader = source.getXMLReader();
+        reader.setContentHandler(handler);
+        try {
+            reader.parse(source.getInputSource());
+        } catch (SAXException e) {
+            // the XMLReader may wrap the exception thrown by the handler
+            if (handler.name == null) {
+                throw new WebServiceException(e);
+            }
+        } catch (IOException e) {
+            throw new WebServiceException(e);
+        }
+        return handler.name;
+    }
+
+    private static QName nameOf(Element root) {
+        if (root == null) {
+            return null;
+        }
+        String prefix = root.getPrefix();
+        return new QName(root.getNamespaceURI() == null ? "" : root.getNamespaceURI(),
+                root.getLocalName() == null ? root.getNodeName() : root.getLocalName(),
+                prefix == null ? "" : prefix);
+    }
+
+    private static byte[] serialize(Source source) {
+        try {
+            Transformer transformer;
+            synchronized (TRANSFORMER) {
+                transformer = TRANSFORMER.newTransformer();
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            transformer.transform(source, new StreamResult(bytes));
+            return bytes.toByteArray();
+        } catch (TransformerException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    private static Element rootElement(Node node) {
+        if (node instanceof Element) {
+            return (Element) node;
+        }
+        if (node instanceof Document) {
+            return ((Document) node).getDocumentElement();
+        }
+        // e.g. a DocumentFragment
+        for (Node child = node == null ? null : node.getFirstChild(); child != null;
+                child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                return (Element) child;
+            }
+        }
+        return null;
+    }
+
+    private static final class RootNameHandler extends DefaultHandler {
+        // thrown to stop parsing at the root element
+        static final SAXException FOUND = new SAXException("root element found");
+
+        QName name;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            int colon = qName.indexOf(':');
+            name = new QName(uri == null ? "" : uri,
+                    localName == null || localName.isEmpty() ? qName.substring(colon + 1) : localName,
+                    colon < 0 ? "" : qName.substring(0, colon));
+            throw FOUND;
+        }
+    }
+}
@@ -126,12 +126,17 @@ public class Service {
      * @param serviceName {@code QName} for the service
      * @param features Web Service features that must be configured on
      *        the service. If the provider doesn't understand a feature,
-     *        it must throw a WebServiceException.
+     *        it must throw a WebServiceException. A
+     *        {@link VirtualThreadFeature} is applied by this constructor.
      */
     protected Service(java.net.URL wsdlDocumentLocation, QName serviceName, WebServiceFeature ... features) {
         delegate = Provider.provider().createServiceDelegate(wsdlDocumentLocation,
                 serviceName,
-                this.getClass(), features);
+                this.getClass(), VirtualThreadFeature.remove(features));
+        VirtualThreadFeature virtualThreads = VirtualThreadFeature.find(features);
+        if (virtualThreads != null && virtualThreads.isEnabled()) {
+            delegate.setExecutor(virtualThreads.createExecutor());
+        }
     }
 
 
@@ -166,7 +171,7 @@ public class Service {
      **/
     public <T> T getPort(QName portName,
             Class<T> serviceEndpointInterface) {
-        return delegate.getPort(portName, serviceEndpointInterface);
+        return delegate.getPortFactory(portName, serviceEndpointInterface, null).createPort();
     }
 
     /**
@@ -208,7 +213,7 @@ public class Service {
      **/
     public <T> T getPort(QName portName,
             Class<T> serviceEndpointInterface, WebServiceFeature... features) {
-        return delegate.getPort(portName, serviceEndpointInterface, features);
+        return delegate.getPortFactory(portName, serviceEndpointInterface, features).createPort();
     }
 
 
@@ -237,7 +242,7 @@ public class Service {
      *                  </UL>
      **/
     public <T> T getPort(Class<T> serviceEndpointInterface) {
-        return delegate.getPort(serviceEndpointInterface);
+        return delegate.getPortFactory(null, serviceEndpointInterface, null).createPort();
     }
 
 
@@ -276,7 +281,7 @@ public class Service {
      **/
     public <T> T getPort(Class<T> serviceEndpointInterface,
             WebServiceFeature... features) {
-        return delegate.getPort(serviceEndpointInterface, features);
+        return delegate.getPortFactory(null, serviceEndpointInterface, features).createPort();
     }
 
 
@@ -652,6 +657,23 @@ public class Service {
         return delegate.createDispatch(endpointReference, context, mode, features);
     }
 
+    /**
+     * Returns the pool of {@code Dispatch} instances created by this
+     * {@code Service} instance.
+     * <p>
+     * Concurrent clients can lease {@code Dispatch} instances from the pool
+     * instead of creating a new one for every request. The pool restores
+     * the request context of an instance when it is returned.
+     *
+     * @return the pool of {@code Dispatch} instances, never {@code null}
+     *
+     * @see DispatchPool
+     * @since JAX-WS 2.4
+     **/
+    public DispatchPool getDispatchPool() {
+        return delegate.getDispatchPool();
+    }
+
     /**
      * Gets the name of this service.
      * @return Qualified name of this service
@@ -0,0 +1,284 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This feature dispatches requests of an {@link Endpoint}, and asynchronous
+ * invocations and callbacks of a {@link Service}, on a thread per task.
+ *
+ * This feature can be used during the creation of {@link Service} instances
+ * on the client side and {@link Endpoint} instances on the server side.
+ * It is applied by the JAX-WS API itself: the feature is removed from the
+ * features passed to the JAX-WS implementation, and the executor returned by
+ * {@link #createExecutor()} is set using {@link Service#setExecutor} or
+ * {@link Endpoint#setExecutor}.
+ * <p>
+ * The following describes the affects of this feature with respect
+ * to being enabled or disabled:
+ * <ul>
+ *  <li> ENABLED: In this Mode, every request or asynchronous invocation
+ *  is run on a new virtual thread if the Java runtime supports virtual
+ *  threads (Java SE 21 and later). Otherwise a pool of at most
+ *  {@link #getMaxPlatformThreads()} daemon threads is used; the tasks
+ *  beyond this limit are queued.
+ *  <li> DISABLED: In this Mode, the executor of the {@code Service}
+ *  or {@code Endpoint} is not changed.
+ * </ul>
+ * <p>
+ * The executors need not be shut down when the {@code Service} or
+ * {@code Endpoint} is no longer used: all virtual threads are started by one
+ * executor shared by the Java runtime, and the pooled platform threads are
+ * daemon threads that terminate after being idle for a minute.
+ *
+ * @see Service#setExecutor
+ * @see Endpoint#setExecutor
+ * @since JAX-WS 2.4
+ */
+public final class VirtualThreadFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the VirtualThreadFeature
+     */
+    public static final String ID = "javax.xml.ws.VirtualThreadFeature";
+
+    /**
+     * Default maximum number of platform threads used if virtual
+     * threads are not supported.
+     */
+    public static final int DEFAULT_MAX_PLATFORM_THREADS = 200;
+
+    private static final Logger logger = Logger.getLogger("javax.xml.ws");
+
+    // Executors.newVirtualThreadPerTaskExecutor(), null if not available
+    private static volatile Method newVirtualThreadPerTaskExecutor = virtualThreadFactoryMethod();
+
+    // the executor created by newVirtualThreadPerTaskExecutor, shared by all features
+    private static volatile ExecutorService virtualThreadExecutor;
+
+    /**
+     * Maximum number of platform threads used if virtual threads
+     * are not supported.
+     */
+    protected int maxPlatformThreads = DEFAULT_MAX_PLATFORM_THREADS;
+
+    /**
+     * Creates a {@code VirtualThreadFeature}.
+     * The instance created will be enabled.
+     */
+    public VirtualThreadFeature() {
+        this.enabled = true;
+    }
+
+    /**
+     * Creates a {@code VirtualThreadFeature}.
+     *
+     * @param enabled specifies whether this feature should
+     * be enabled or not.
+     */
+    public VirtualThreadFeature(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Creates a {@code VirtualThreadFeature}.
+     *
+     * @param enabled specifies whether this feature should
+     * be enabled or not.
+     * @param maxPlatformThreads the maximum number of platform threads
+     * used if virtual threads are not supported.
+     *
+     * @throws WebServiceException if maxPlatformThreads is &lt; 1
+     */
+    public VirtualThreadFeature(boolean enabled, int maxPlatformThreads) {
+        if (maxPlatformThreads < 1) {
+            throw new WebServiceException("VirtualThreadFeature.maxPlatformThreads must be > 0");
+        }
+        this.enabled = enabled;
+        this.maxPlatformThreads = maxPlatformThreads;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getID() {
+        return ID;
+    }
+
+    /**
+     * Gets the maximum number of platform threads used if virtual
+     * threads are not supported.
+     *
+     * @return the maximum number of platform threads
+     */
+    public int getMaxPlatformThreads() {
+        return maxPlatformThreads;
+    }
+
+    /**
+     * Returns whether the Java runtime supports virtual threads.
+     *
+     * @return {@code true} if {@link #createExecutor()} returns
+     *         a virtual-thread-per-task executor
+     */
+    public static boolean isVirtualThreadSupported() {
+        return newVirtualThreadPerTaskExecutor != null;
+    }
+
+    /**
+     * Returns an executor as described by this feature: a view of the
+     * virtual-thread-per-task executor shared by all features if the Java
+     * runtime supports virtual threads, or else a new pool of at most
+     * {@link #getMaxPlatformThreads()} daemon threads, which terminate
+     * after being idle for a minute.
+     * <p>
+     * The returned executor does not need to be shut down, and cannot
+     * be used to shut down the shared virtual-thread-per-task executor.
+     *
+     * @return an {@code Executor}
+     */
+    public Executor createExecutor() {
+        final ExecutorService virtualThreads = virtualThreadExecutor();
+        if (virtualThreads != null) {
+            return new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    virtualThreads.execute(command);
+                }
+            };
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxPlatformThreads, maxPlatformThreads,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Returns the virtual-thread-per-task executor shared by all features,
+     * creating it on first use, or {@code null} if virtual threads are
+     * not available.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        ExecutorService executor = virtualThreadExecutor;
+        if (executor != null) {
+            return executor;
+        }
+        synchronized (VirtualThreadFeature.class) {
+            Method m = newVirtualThreadPerTaskExecutor;
+            if (virtualThreadExecutor == null && m != null) {
+                try {
+                    virtualThreadExecutor = (ExecutorService) m.invoke(null);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    // e.g. a preview API that is not enabled
+                    logger.log(Level.FINE, "Virtual threads are not available, using platform threads", e);
+                    newVirtualThreadPerTaskExecutor = null;
+                }
+            }
+            return virtualThreadExecutor;
+        }
+    }
+
+    /**
+     * Returns the first {@code VirtualThreadFeature} in {@code features},
+     * or {@code null} if there is none.
+     */
+    static VirtualThreadFeature find(WebServiceFeature[] features) {
+        if (features != null) {
+            for (WebServiceFeature f : features) {
+                if (f instanceof VirtualThreadFeature) {
+                    return (VirtualThreadFeature) f;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns {@code features} without the {@code VirtualThreadFeature}s,
+     * which the JAX-WS implementation does not need to understand.
+     */
+    static WebServiceFeature[] remove(WebServiceFeature[] features) {
+        if (find(features) == null) {
+            return features;
+        }
+        List<WebServiceFeature> rest = new ArrayList<WebServiceFeature>(features.length);
+        for (WebServiceFeature f : features) {
+            if (!(f instanceof VirtualThreadFeature)) {
+                rest.add(f);
+            }
+        }
+        return rest.toArray(new WebServiceFeature[rest.size()]);
+    }
+
+    private static Method virtualThreadFactoryMethod() {
+        try {
+            // Use reflection, the API is compiled for Java SE 8
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException | SecurityException ignored) {
+            return null;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+        private final String prefix = "jaxws-worker-" + POOL_NUMBER.incrementAndGet() + "-";
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
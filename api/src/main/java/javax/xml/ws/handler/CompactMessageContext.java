@@ -0,0 +1,526 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.handler;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact {@code MessageContext} implementation which JAX-WS runtimes
+ * can use or extend for their message contexts.
+ * <p>
+ * The values of the standard properties defined by {@link MessageContext}
+ * are kept in fixed array slots, and their presence and scope in two
+ * bitsets, so that looking them up does not involve a hash map. Other
+ * properties are kept in a small open-addressing table which is only
+ * allocated when the first such property is set. The scope of all the
+ * properties is stored as one bit per property.
+ * <p>
+ * Properties added by {@link #put} get the {@linkplain #setDefaultScope
+ * default scope}, which is initially {@link Scope#APPLICATION}. A runtime
+ * typically sets the default scope to {@link Scope#HANDLER} after having
+ * populated the context and before calling the handlers. Keys must not
+ * be {@code null}; values may be {@code null}.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @since JAX-WS 2.4
+ */
+public class CompactMessageContext extends AbstractMap<String, Object> implements MessageContext {
+
+    private static final String[] STANDARD_KEYS = {
+        MESSAGE_OUTBOUND_PROPERTY,
+        INBOUND_MESSAGE_ATTACHMENTS,
+        OUTBOUND_MESSAGE_ATTACHMENTS,
+        WSDL_DESCRIPTION,
+        WSDL_SERVICE,
+        WSDL_PORT,
+        WSDL_INTERFACE,
+        WSDL_OPERATION,
+        HTTP_RESPONSE_CODE,
+        HTTP_REQUEST_HEADERS,
+        HTTP_RESPONSE_HEADERS,
+        HTTP_REQUEST_METHOD,
+        SERVLET_REQUEST,
+        SERVLET_RESPONSE,
+        SERVLET_CONTEXT,
+        QUERY_STRING,
+        PATH_INFO,
+        REFERENCE_PARAMETERS
+    };
+
+    // open-addressing table from standard key to slot, at most 50% full
+    private static final String[] STANDARD_TABLE = new String[64];
+    private static final byte[] STANDARD_TABLE_SLOTS = new byte[64];
+
+    static {
+        for (int slot = 0; slot < STANDARD_KEYS.length; slot++) {
+            String key = STANDARD_KEYS[slot];
+            int i = spread(key.hashCode()) & (STANDARD_TABLE.length - 1);
+            while (STANDARD_TABLE[i] != null) {
+                i = (i + 1) & (STANDARD_TABLE.length - 1);
+            }
+            STANDARD_TABLE[i] = key;
+            STANDARD_TABLE_SLOTS[i] = (byte) slot;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Object[] standardValues = new Object[STANDARD_KEYS.length];
+    // bit i set if standard property i is present, resp. has HANDLER scope
+    private int standardPresent;
+    private int standardHandlerScope;
+
+    // linear probing table of the other properties, at most 50% full
+    private String[] userKeys;
+    private Object[] userValues;
+    // bit i set if the property at userKeys[i] has HANDLER scope
+    private long[] userHandlerScope;
+    private int userSize;
+
+    private Scope defaultScope = Scope.APPLICATION;
+
+    private Set<Entry<String, Object>> entrySet;
+
+    /**
+     * Creates an empty {@code CompactMessageContext}.
+     */
+    public CompactMessageContext() {
+    }
+
+    /**
+     * Returns the scope given to properties added by {@link #put}.
+     *
+     * @return the default scope
+     */
+    public Scope getDefaultScope() {
+        return defaultScope;
+    }
+
+    /**
+     * Sets the scope given to properties added by {@link #put}. It does
+     * not change the scope of the properties already present.
+     *
+     * @param scope the default scope
+     */
+    public void setDefaultScope(Scope scope) {
+        if (scope == null) {
+            throw new NullPointerException("scope");
+        }
+        this.defaultScope = scope;
+    }
+
+    @Override
+    public void setScope(String name, Scope scope) {
+        if (scope == null) {
+            throw new NullPointerException("scope");
+        }
+        boolean handler = scope == Scope.HANDLER;
+        if (name != null) {
+            int h = spread(name.hashCode());
+            int slot = standardSlot(name, h);
+            if (slot >= 0) {
+                int bit = 1 << slot;
+                if ((standardPresent & bit) != 0) {
+                    standardHandlerScope = handler ? standardHandlerScope | bit : standardHandlerScope & ~bit;
+                    return;
+                }
+            } else if (userKeys != null) {
+                int i = userIndex(name, h);
+                if (userKeys[i] != null) {
+                    setUserScope(i, handler);
+                    return;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Property " + name + " is not set");
+    }
+
+    @Override
+    public Scope getScope(String name) {
+        if (name != null) {
+            int h = spread(name.hashCode());
+            int slot = standardSlot(name, h);
+            if (slot >= 0) {
+                int bit = 1 << slot;
+                if ((standardPresent & bit) != 0) {
+                    return (standardHandlerScope & bit) != 0 ? Scope.HANDLER : Scope.APPLICATION;
+                }
+            } else if (userKeys != null) {
+                int i = userIndex(name, h);
+                if (userKeys[i] != null) {
+                    return isUserHandlerScope(i) ? Scope.HANDLER : Scope.APPLICATION;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Property " + name + " is not set");
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int h = spread(key.hashCode());
+        int slot = standardSlot(key, h);
+        if (slot >= 0) {
+            return standardValues[slot];
+        }
+        if (userKeys == null) {
+            return null;
+        }
+        return userValues[userIndex(key, h)];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        int h = spread(key.hashCode());
+        int slot = standardSlot(key, h);
+        if (slot >= 0) {
+            return (standardPresent & (1 << slot)) != 0;
+        }
+        return userKeys != null && userKeys[userIndex(key, h)] != null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+        int h = spread(key.hashCode());
+        int slot = standardSlot(key, h);
+        if (slot >= 0) {
+            int bit = 1 << slot;
+            Object old = standardValues[slot];
+            standardValues[slot] = value;
+            if ((standardPresent & bit) == 0) {
+                standardPresent |= bit;
+                standardHandlerScope = defaultScope == Scope.HANDLER
+                        ? standardHandlerScope | bit : standardHandlerScope & ~bit;
+            }
+            return old;
+        }
+        if (userKeys == null || (userSize + 1) * 2 > userKeys.length) {
+            resize(userKeys == null ? INITIAL_CAPACITY : userKeys.length * 2);
+        }
+        int i = userIndex(key, h);
+        if (userKeys[i] != null) {
+            Object old = userValues[i];
+            userValues[i] = value;
+            return old;
+        }
+        userKeys[i] = key;
+        userValues[i] = value;
+        setUserScope(i, defaultScope == Scope.HANDLER);
+        userSize++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int h = spread(key.hashCode());
+        int slot = standardSlot(key, h);
+        if (slot >= 0) {
+            int bit = 1 << slot;
+            Object old = standardValues[slot];
+            standardValues[slot] = null;
+            standardPresent &= ~bit;
+            standardHandlerScope &= ~bit;
+            return old;
+        }
+        if (userKeys == null) {
+            return null;
+        }
+        int i = userIndex(key, h);
+        if (userKeys[i] == null) {
+            return null;
+        }
+        Object old = userValues[i];
+        removeUser(i);
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(standardPresent) + userSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return standardPresent == 0 && userSize == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < standardValues.length; i++) {
+            standardValues[i] = null;
+        }
+        standardPresent = 0;
+        standardHandlerScope = 0;
+        userKeys = null;
+        userValues = null;
+        userHandlerScope = null;
+        userSize = 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return CompactMessageContext.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    CompactMessageContext.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int standardSlot(Object key, int h) {
+        int mask = STANDARD_TABLE.length - 1;
+        int i = h & mask;
+        String k;
+        while ((k = STANDARD_TABLE[i]) != null) {
+            if (k == key || k.equals(key)) {
+                return STANDARD_TABLE_SLOTS[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // index of key in userKeys, or of the empty entry where it would be added
+    private int userIndex(Object key, int h) {
+        String[] keys = userKeys;
+        int mask = keys.length - 1;
+        int i = h & mask;
+        String k;
+        while ((k = keys[i]) != null) {
+            if (k == key || k.equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private boolean isUserHandlerScope(int i) {
+        return (userHandlerScope[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private void setUserScope(int i, boolean handler) {
+        if (handler) {
+            userHandlerScope[i >>> 6] |= 1L << i;
+        } else {
+            userHandlerScope[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = userKeys;
+        Object[] oldValues = userValues;
+        long[] oldScope = userHandlerScope;
+        userKeys = new String[capacity];
+        userValues = new Object[capacity];
+        userHandlerScope = new long[(capacity + 63) >>> 6];
+        if (oldKeys != null) {
+            for (int j = 0; j < oldKeys.length; j++) {
+                String key = oldKeys[j];
+                if (key != null) {
+                    int i = userIndex(key, spread(key.hashCode()));
+                    userKeys[i] = key;
+                    userValues[i] = oldValues[j];
+                    setUserScope(i, (oldScope[j >>> 6] & (1L << j)) != 0);
+                }
+            }
+        }
+    }
+
+    // removes the entry at i, shifting back the entries of its probe sequence
+    private void removeUser(int i) {
+        String[] keys = userKeys;
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            String key = keys[j];
+            if (key == null) {
+                break;
+            }
+            int home = spread(key.hashCode()) & mask;
+            // move the entry at j to i unless its home lies cyclically in (i, j]
+            boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                keys[i] = key;
+                userValues[i] = userValues[j];
+                setUserScope(i, isUserHandlerScope(j));
+                i = j;
+            }
+        }
+        keys[i] = null;
+        userValues[i] = null;
+        setUserScope(i, false);
+        userSize--;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        // the standard slots are iterated live, the other keys from a
+        // snapshot as removals may move entries of the probing table
+        private int slot = -1;
+        private final String[] userSnapshot = userSize == 0 ? null : userKeys.clone();
+        private int userPosition = -1;
+        private String next;
+        private String last;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            while (++slot < STANDARD_KEYS.length) {
+                if ((standardPresent & (1 << slot)) != 0) {
+                    next = STANDARD_KEYS[slot];
+                    return true;
+                }
+            }
+            slot = STANDARD_KEYS.length;
+            if (userSnapshot != null) {
+                while (++userPosition < userSnapshot.length) {
+                    String key = userSnapshot[userPosition];
+                    if (key != null && containsKey(key)) {
+                        next = key;
+                        return true;
+                    }
+                }
+                userPosition = userSnapshot.length;
+            }
+            return false;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return new PropertyEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            CompactMessageContext.this.remove(last);
+            last = null;
+        }
+    }
+
+    private final class PropertyEntry implements Entry<String, Object> {
+        private final String key;
+
+        PropertyEntry(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return get(key);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            Object value = getValue();
+            return key.equals(e.getKey())
+                    && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.xml.namespace.QName;
+import javax.xml.ws.handler.soap.SOAPHandler;
+
+/**
+ * An immutable snapshot of a handler chain, partitioned and sorted
+ * once so that JAX-WS runtimes do not have to inspect the handlers for
+ * every message.
+ * <p>
+ * The handlers are partitioned into logical handlers and protocol
+ * handlers, each in the order of the configured chain. {@link #getHandlers()}
+ * returns them in the order a runtime calls them for an outbound message:
+ * logical handlers first, then protocol handlers. Precomputed flags let a
+ * runtime skip whole processing phases, for instance the creation of a
+ * {@code SOAPMessage} when {@link #hasSOAPHandlers()} is {@code false}, or
+ * the {@code mustUnderstand} bookkeeping of handler headers when
+ * {@link #getUnderstoodHeaders()} is empty.
+ * <p>
+ * The headers returned by {@link SOAPHandler#getHeaders()} are collected
+ * when the chain is compiled; handlers whose headers change must be set
+ * again with {@link javax.xml.ws.Binding#setHandlerChain}.
+ * <p>
+ * {@link #getActiveHandlers} filters out the {@link ConditionalHandler}s
+ * which are passive for a message; if none remains, the runtime can
+ * bypass handler processing, including the creation of the
+ * {@code SOAPMessage}, for that message.
+ *
+ * @see javax.xml.ws.Binding#getCompiledHandlerChain()
+ * @since JAX-WS 2.4
+ */
+public final class CompiledHandlerChain {
+
+    /**
+     * The compiled chain without handlers.
+     */
+    public static final CompiledHandlerChain EMPTY =
+            new CompiledHandlerChain(Collections.<Handler<?>>emptyList(),
+                    Collections.<Handler<?>>emptyList(), Collections.<QName>emptySet(), false);
+
+    private final List<Handler<?>> handlers;
+    private final List<Handler<?>> logicalHandlers;
+    private final List<Handler<?>> protocolHandlers;
+    private final Set<QName> understoodHeaders;
+    private final boolean soapHandlers;
+    private final boolean conditional;
+
+    private CompiledHandlerChain(List<Handler<?>> logicalHandlers, List<Handler<?>> protocolHandlers,
+            Set<QName> understoodHeaders, boolean soapHandlers) {
+        List<Handler<?>> all = new ArrayList<Handler<?>>(logicalHandlers.size() + protocolHandlers.size());
+        all.addAll(logicalHandlers);
+        all.addAll(protocolHandlers);
+        this.handlers = Collections.unmodifiableList(all);
+        this.logicalHandlers = Collections.unmodifiableList(logicalHandlers);
+        this.protocolHandlers = Collections.unmodifiableList(protocolHandlers);
+        this.understoodHeaders = Collections.unmodifiableSet(understoodHeaders);
+        this.soapHandlers = soapHandlers;
+        boolean c = false;
+        for (Handler<?> handler : all) {
+            c |= handler instanceof ConditionalHandler;
+        }
+        this.conditional = c;
+    }
+
+    /**
+     * Compiles the given handler chain. The list is copied.
+     *
+     * @param chain the handler chain, may be {@code null}
+     * @return the compiled chain
+     */
+    // raw bound: accepts the List<Handler> of Binding.getHandlerChain()
+    @SuppressWarnings("rawtypes")
+    public static CompiledHandlerChain compile(List<? extends Handler> chain) {
+        if (chain == null || chain.isEmpty()) {
+            return EMPTY;
+        }
+        List<Handler<?>> logical = new ArrayList<Handler<?>>();
+        List<Handler<?>> protocol = new ArrayList<Handler<?>>();
+        Set<QName> headers = new HashSet<QName>();
+        boolean soap = false;
+        for (Handler<?> handler : chain) {
+            if (handler instanceof LogicalHandler) {
+                logical.add(handler);
+            } else {
+                protocol.add(handler);
+                if (handler instanceof SOAPHandler) {
+                    soap = true;
+                    Set<QName> h = ((SOAPHandler<?>) handler).getHeaders();
+                    if (h != null) {
+                        headers.addAll(h);
+                    }
+                }
+            }
+        }
+        return new CompiledHandlerChain(logical, protocol, headers, soap);
+    }
+
+    /**
+     * Returns all the handlers, logical handlers first.
+     *
+     * @return an immutable list of the handlers
+     */
+    public List<Handler<?>> getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Returns the logical handlers, in the order of the configured chain.
+     *
+     * @return an immutable list of the logical handlers
+     */
+    public List<Handler<?>> getLogicalHandlers() {
+        return logicalHandlers;
+    }
+
+    /**
+     * Returns the protocol handlers, in the order of the configured chain.
+     *
+     * @return an immutable list of the protocol handlers
+     */
+    public List<Handler<?>> getProtocolHandlers() {
+        return protocolHandlers;
+    }
+
+    /**
+     * Returns the qualified names of the header blocks processed by
+     * the {@code SOAPHandler}s of the chain.
+     *
+     * @return an immutable set of header block names, empty if no
+     *         handler understands headers
+     */
+    public Set<QName> getUnderstoodHeaders() {
+        return understoodHeaders;
+    }
+
+    /**
+     * Returns whether the chain has no handlers.
+     *
+     * @return {@code true} if the chain has no handlers
+     */
+    public boolean isEmpty() {
+        return handlers.isEmpty();
+    }
+
+    /**
+     * Returns whether the chain has logical handlers.
+     *
+     * @return {@code true} if the chain has logical handlers
+     */
+    public boolean hasLogicalHandlers() {
+        return !logicalHandlers.isEmpty();
+    }
+
+    /**
+     * Returns whether the chain has protocol handlers.
+     *
+     * @return {@code true} if the chain has protocol handlers
+     */
+    public boolean hasProtocolHandlers() {
+        return !protocolHandlers.isEmpty();
+    }
+
+    /**
+     * Returns whether the chain has {@link ConditionalHandler}s.
+     *
+     * @return {@code true} if some handlers are {@code ConditionalHandler}s
+     */
+    public boolean hasConditionalHandlers() {
+        return conditional;
+    }
+
+    /**
+     * Returns the handlers which are active for the message of the given
+     * context, logical handlers first. A handler is active unless it is a
+     * {@link ConditionalHandler} whose {@code isActive} returns {@code false}.
+     * If the chain has no {@code ConditionalHandler}s,
+     * {@link #getHandlers()} is returned.
+     *
+     * @param context the message context
+     * @return an immutable list of the active handlers, empty if
+     *         the runtime can skip handler processing for the message
+     */
+    public List<Handler<?>> getActiveHandlers(MessageContext context) {
+        if (!conditional) {
+            return handlers;
+        }
+        List<Handler<?>> active = null;
+        for (int i = 0; i < handlers.size(); i++) {
+            Handler<?> handler = handlers.get(i);
+            boolean isActive = !(handler instanceof ConditionalHandler)
+                    || ((ConditionalHandler) handler).isActive(context);
+            if (active == null && !isActive) {
+                // copy the handlers seen so far, all active
+                active = new ArrayList<Handler<?>>(handlers.subList(0, i));
+            } else if (active != null && isActive) {
+                active.add(handler);
+            }
+        }
+        return active == null ? handlers : Collections.unmodifiableList(active);
+    }
+
+    /**
+     * Returns whether the chain has {@code SOAPHandler}s.
+     *
+     * @return {@code true} if the chain has {@code SOAPHandler}s
+     */
+    public boolean hasSOAPHandlers() {
+        return soapHandlers;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.handler;
+
+/** The {@code ConditionalHandler} interface is a mix-in for
+ *  {@link Handler}s which only need to see some of the messages, for
+ *  example logging handlers which are disabled at the current log level.
+ *
+ *  <p>Before a message is processed, a JAX-WS runtime MAY call
+ *  {@link #isActive} for each {@code ConditionalHandler} of the chain. If
+ *  it returns {@code false}, the runtime does not call {@code handleMessage},
+ *  {@code handleFault} or {@code close} on the handler for the message.
+ *  If no handler of the chain is active, the runtime does not need to
+ *  create the protocol message seen by handlers, such as the
+ *  {@code SOAPMessage} of a {@code SOAPMessageContext}.
+ *
+ *  <p>The message context passed to {@code isActive} gives access to the
+ *  message properties, such as
+ *  {@link MessageContext#MESSAGE_OUTBOUND_PROPERTY}; the message itself
+ *  SHOULD NOT be accessed, as doing so defeats the purpose of this interface.
+ *
+ *  @see CompiledHandlerChain#getActiveHandlers
+ *  @since JAX-WS 2.4
+**/
+public interface ConditionalHandler {
+
+  /** Returns whether this handler needs to process the message of the
+   *  given context.
+   *
+   *  @param context the message context, without access to the message
+   *  @return {@code true} if {@code handleMessage}, {@code handleFault}
+   *          and {@code close} must be called for the message,
+   *          {@code false} if this handler is passive for it
+  **/
+  public boolean isActive(MessageContext context);
+}
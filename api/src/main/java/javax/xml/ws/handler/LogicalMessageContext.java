@@ -40,6 +40,7 @@
 
 package javax.xml.ws.handler;
 
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.ws.LogicalMessage;
 
 /** The {@code LogicalMessageContext} interface extends
@@ -58,4 +59,20 @@ public interface LogicalMessageContext
    *          message is present in this message context
   **/
   public LogicalMessage getMessage();
+
+  /** Gets the payload of the contained message as a one-shot stream of
+   *  XML events. See {@link LogicalMessage#readPayload()}.
+   *
+   *  <p>The default implementation calls {@code readPayload} on
+   *  {@link #getMessage()}; implementations may override it to avoid
+   *  creating the {@code LogicalMessage}.
+   *
+   *  @return A reader of the payload; returns {@code null} if no
+   *          message or no payload is present in this message context
+   *  @since JAX-WS 2.4
+  **/
+  public default XMLStreamReader readPayload() {
+    LogicalMessage message = getMessage();
+    return message == null ? null : message.readPayload();
+  }
 }
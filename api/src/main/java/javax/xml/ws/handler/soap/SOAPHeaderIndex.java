@@ -0,0 +1,276 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.handler.soap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPConstants;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPHeader;
+import javax.xml.soap.SOAPHeaderElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.SOAPRoles;
+
+/** An index of the header blocks of a SOAP message by qualified name,
+ *  built in one pass over the SOAP header, with a cache of the
+ *  unmarshalled header blocks.
+ *
+ *  <p>JAX-WS runtimes build the index once per message, see
+ *  {@link SOAPMessageContext#getHeaderIndex()}, so that handlers looking
+ *  up different headers of the same message do not each scan the whole
+ *  SOAP header, and handlers looking up the same headers with the same
+ *  {@code JAXBContext} do not each unmarshal them.
+ *
+ *  <p>A header block is targeted at this SOAP node if it has no role
+ *  (the ultimate receiver), or if its role is one of the roles given to
+ *  the index. The index reflects the header blocks present when it was
+ *  built; it must be built again when the message is replaced or
+ *  when its header blocks are added or removed.
+ *
+ *  <p>Instances are not thread-safe.
+ *
+ *  @since JAX-WS 2.4
+**/
+public final class SOAPHeaderIndex {
+
+  /** The index of a message without header blocks.
+  **/
+  public static final SOAPHeaderIndex EMPTY =
+          new SOAPHeaderIndex(Collections.<QName, List<SOAPHeaderElement>>emptyMap(),
+                  SOAPRoles.EMPTY, false);
+
+  private final Map<QName, List<SOAPHeaderElement>> headers;
+  private final SOAPRoles roles;
+  // whether header blocks are targeted with the SOAP 1.2 role attribute,
+  // rather than with the SOAP 1.1 actor attribute
+  private final boolean soap12;
+
+  // unmarshalled headers, created lazily
+  private Map<CacheKey, Object[]> unmarshalled;
+  private Map<JAXBContext, Unmarshaller> unmarshallers;
+
+  private SOAPHeaderIndex(Map<QName, List<SOAPHeaderElement>> headers, SOAPRoles roles,
+          boolean soap12) {
+    this.headers = headers;
+    this.roles = roles;
+    this.soap12 = soap12;
+  }
+
+  /** Builds the index of the header blocks of a message.
+   *
+   *  @param  message SOAP message, may be {@code null}
+   *  @param  roles the SOAP roles played by this SOAP node,
+   *          see {@link SOAPMessageContext#getRoles()}
+   *  @return the index
+   *  @throws WebServiceException If the SOAP header cannot be read
+  **/
+  public static SOAPHeaderIndex of(SOAPMessage message, Set<String> roles) {
+    return of(message, SOAPRoles.of(roles));
+  }
+
+  /** Builds the index of the header blocks of a message.
+   *
+   *  @param  message SOAP message, may be {@code null}
+   *  @param  roles the SOAP roles played by this SOAP node,
+   *          see {@link SOAPMessageContext#getSOAPRoles()}
+   *  @return the index
+   *  @throws WebServiceException If the SOAP header cannot be read
+  **/
+  public static SOAPHeaderIndex of(SOAPMessage message, SOAPRoles roles) {
+    if (message == null) {
+      return EMPTY;
+    }
+    SOAPHeader header;
+    try {
+      header = message.getSOAPHeader();
+    } catch (SOAPException e) {
+      throw new WebServiceException(e);
+    }
+    if (header == null) {
+      return EMPTY;
+    }
+    Map<QName, List<SOAPHeaderElement>> headers = new HashMap<QName, List<SOAPHeaderElement>>();
+    // raw before SAAJ 1.4
+    Iterator<?> it = header.examineAllHeaderElements();
+    while (it.hasNext()) {
+      SOAPHeaderElement element = (SOAPHeaderElement) it.next();
+      QName name = element.getElementQName();
+      List<SOAPHeaderElement> list = headers.get(name);
+      if (list == null) {
+        // most header blocks occur once
+        list = new ArrayList<SOAPHeaderElement>(1);
+        headers.put(name, list);
+      }
+      list.add(element);
+    }
+    boolean soap12 = SOAPConstants.URI_NS_SOAP_1_2_ENVELOPE.equals(header.getNamespaceURI());
+    return new SOAPHeaderIndex(headers, roles == null ? SOAPRoles.EMPTY : roles, soap12);
+  }
+
+  /** Returns the qualified names of the header blocks of the message.
+   *
+   *  @return an unmodifiable set of header block names
+  **/
+  public Set<QName> getHeaderNames() {
+    return Collections.unmodifiableSet(headers.keySet());
+  }
+
+  /** Gets the header blocks that have a particular qualified name,
+   *  in document order.
+   *
+   *  @param  header The XML qualified name of the SOAP header(s).
+   *  @param  allRoles If {@code true} then returns headers for all SOAP
+   *          roles, if {@code false} then only returns headers targetted
+   *          at the roles of this index.
+   *  @return an unmodifiable list of header blocks, empty if there is none
+  **/
+  public List<SOAPHeaderElement> getHeaderElements(QName header, boolean allRoles) {
+    List<SOAPHeaderElement> list = headers.get(header);
+    if (list == null) {
+      return Collections.emptyList();
+    }
+    if (allRoles) {
+      return Collections.unmodifiableList(list);
+    }
+    List<SOAPHeaderElement> targeted = new ArrayList<SOAPHeaderElement>(list.size());
+    for (SOAPHeaderElement element : list) {
+      if (isTargeted(element)) {
+        targeted.add(element);
+      }
+    }
+    return Collections.unmodifiableList(targeted);
+  }
+
+  /** Gets the unmarshalled header blocks that have a particular qualified
+   *  name, like {@link SOAPMessageContext#getHeaders}. The result is cached
+   *  per qualified name, {@code JAXBContext} identity and {@code allRoles}.
+   *
+   *  @param  header The XML qualified name of the SOAP header(s).
+   *  @param  context The JAXBContext that should be used to unmarshall the
+   *          header
+   *  @param  allRoles If {@code true} then returns headers for all SOAP
+   *          roles, if {@code false} then only returns headers targetted
+   *          at the roles of this index.
+   *  @return An array of unmarshalled headers; returns an empty array if no
+   *          headers match the supplied qualified name.
+   *  @throws WebServiceException If an error occurs when using the supplied
+   *     {@code JAXBContext} to unmarshall. The cause of
+   *     the {@code WebServiceException} is the original {@code JAXBException}.
+  **/
+  public Object[] getHeaders(QName header, JAXBContext context, boolean allRoles) {
+    if (!headers.containsKey(header)) {
+      return new Object[0];
+    }
+    CacheKey key = new CacheKey(header, context, allRoles);
+    Object[] result = unmarshalled == null ? null : unmarshalled.get(key);
+    if (result == null) {
+      List<SOAPHeaderElement> elements = getHeaderElements(header, allRoles);
+      result = new Object[elements.size()];
+      try {
+        Unmarshaller unmarshaller = unmarshaller(context);
+        for (int i = 0; i < result.length; i++) {
+          result[i] = unmarshaller.unmarshal(elements.get(i));
+        }
+      } catch (JAXBException e) {
+        throw new WebServiceException(e);
+      }
+      if (unmarshalled == null) {
+        unmarshalled = new HashMap<CacheKey, Object[]>();
+      }
+      unmarshalled.put(key, result);
+    }
+    // the array is mutable, the unmarshalled objects are shared
+    return result.clone();
+  }
+
+  private boolean isTargeted(SOAPHeaderElement element) {
+    return roles.isTargeted(soap12 ? element.getRole() : element.getActor());
+  }
+
+  private Unmarshaller unmarshaller(JAXBContext context) throws JAXBException {
+    if (unmarshallers == null) {
+      unmarshallers = new IdentityHashMap<JAXBContext, Unmarshaller>();
+    }
+    Unmarshaller unmarshaller = unmarshallers.get(context);
+    if (unmarshaller == null) {
+      unmarshaller = context.createUnmarshaller();
+      unmarshallers.put(context, unmarshaller);
+    }
+    return unmarshaller;
+  }
+
+  private static final class CacheKey {
+    private final QName header;
+    private final JAXBContext context;
+    private final boolean allRoles;
+
+    CacheKey(QName header, JAXBContext context, boolean allRoles) {
+      this.header = header;
+      this.context = context;
+      this.allRoles = allRoles;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey k = (CacheKey) o;
+      return context == k.context && allRoles == k.allRoles && header.equals(k.header);
+    }
+
+    @Override
+    public int hashCode() {
+      return header.hashCode() * 31 + System.identityHashCode(context) + (allRoles ? 1 : 0);
+    }
+  }
+}
@@ -43,6 +43,7 @@ package javax.xml.ws.handler.soap;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.bind.JAXBContext;
 import javax.xml.namespace.QName;
+import javax.xml.ws.soap.SOAPRoles;
 import java.util.Set;
 
 /** The interface {@code SOAPMessageContext}
@@ -111,4 +112,39 @@ public interface SOAPMessageContext
    *  @return Array of {@code String} for SOAP actor roles
   **/
   public Set<String> getRoles();
+
+  /** Gets the SOAP actor roles associated with an execution of the handler
+   *  chain, numbered for fast role matching, see
+   *  {@link javax.xml.ws.soap.SOAPRoles}.
+   *
+   *  <p>The default implementation calls {@code SOAPRoles.of} with
+   *  {@link #getRoles()} on every call. Implementations should return
+   *  the one of the binding, see
+   *  {@link javax.xml.ws.soap.SOAPBinding#getSOAPRoles}.
+   *
+   *  @return the SOAP actor roles
+   *  @since JAX-WS 2.4
+  **/
+  public default SOAPRoles getSOAPRoles() {
+    return SOAPRoles.of(getRoles());
+  }
+
+  /** Gets the index of the header blocks of the message in this message
+   *  context, which also caches the unmarshalled headers.
+   *
+   *  <p>The default implementation builds a new index on every call.
+   *  Implementations should build it once per message and discard it in
+   *  {@code setMessage}, and should implement {@link #getHeaders} with it,
+   *  so that a chain of handlers looking up headers scans the SOAP
+   *  header once.
+   *
+   *  @return the header index; {@link SOAPHeaderIndex#EMPTY} if no
+   *          message is present in this message context
+   *  @throws javax.xml.ws.WebServiceException If the SOAP header
+   *          cannot be read
+   *  @since JAX-WS 2.4
+  **/
+  public default SOAPHeaderIndex getHeaderIndex() {
+    return SOAPHeaderIndex.of(getMessage(), getSOAPRoles());
+  }
 }
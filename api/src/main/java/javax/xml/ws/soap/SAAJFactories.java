@@ -0,0 +1,173 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.ws.soap;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPConstants;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPFactory;
+import javax.xml.ws.WebServiceException;
+
+/**
+ * SAAJ {@code SOAPFactory} and {@code MessageFactory} instances per SOAP
+ * protocol, created at most once per context class loader.
+ * <p>
+ * SAAJ resolves its implementation through the context class loader, so
+ * the factories are kept in a {@code WeakHashMap} keyed by that class loader.
+ * As the factories are usually loaded by the very class loader used as the
+ * key, the entries are softly referenced, so that the class loader can be
+ * collected. Implementations of {@code SOAPBinding} which keep their
+ * factories do not look them up here for every message.
+ *
+ * @see SOAPBinding#getSOAPFactory()
+ * @see SOAPBinding#getMessageFactory()
+ */
+final class SAAJFactories {
+
+    // WeakHashMap does not hold null keys weakly, use a sentinel instead
+    private static final Object NULL_LOADER = new Object();
+
+    private static final Map<Object, SoftReference<SAAJFactories>> CACHE =
+            new WeakHashMap<Object, SoftReference<SAAJFactories>>();
+
+    private volatile SOAPFactory soap11Factory;
+    private volatile SOAPFactory soap12Factory;
+    private volatile MessageFactory soap11MessageFactory;
+    private volatile MessageFactory soap12MessageFactory;
+
+    private SAAJFactories() {
+    }
+
+    /**
+     * Returns the factories for the context class loader of the current thread.
+     */
+    static SAAJFactories current() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Object key = classLoader == null ? NULL_LOADER : classLoader;
+        synchronized (CACHE) {
+            SoftReference<SAAJFactories> ref = CACHE.get(key);
+            SAAJFactories factories = ref == null ? null : ref.get();
+            if (factories == null) {
+                factories = new SAAJFactories();
+                CACHE.put(key, new SoftReference<SAAJFactories>(factories));
+            }
+            return factories;
+        }
+    }
+
+    /**
+     * Returns the {@code SOAPFactory} for the SOAP version of the given binding.
+     *
+     * @throws WebServiceException if {@code bindingId} is not one of the
+     *         {@link SOAPBinding} binding IDs or the factory cannot be created
+     */
+    SOAPFactory getSOAPFactory(String bindingId) {
+        boolean soap12 = isSOAP12(bindingId);
+        SOAPFactory factory = soap12 ? soap12Factory : soap11Factory;
+        if (factory != null) {
+            return factory;
+        }
+        synchronized (this) {
+            factory = soap12 ? soap12Factory : soap11Factory;
+            if (factory == null) {
+                try {
+                    factory = SOAPFactory.newInstance(protocol(soap12));
+                } catch (SOAPException e) {
+                    throw new WebServiceException(e);
+                }
+                if (soap12) {
+                    soap12Factory = factory;
+                } else {
+                    soap11Factory = factory;
+                }
+            }
+            return factory;
+        }
+    }
+
+    /**
+     * Returns the {@code MessageFactory} for the SOAP version of the given binding.
+     *
+     * @throws WebServiceException if {@code bindingId} is not one of the
+     *         {@link SOAPBinding} binding IDs or the factory cannot be created
+     */
+    MessageFactory getMessageFactory(String bindingId) {
+        boolean soap12 = isSOAP12(bindingId);
+        MessageFactory factory = soap12 ? soap12MessageFactory : soap11MessageFactory;
+        if (factory != null) {
+            return factory;
+        }
+        synchronized (this) {
+            factory = soap12 ? soap12MessageFactory : soap11MessageFactory;
+            if (factory == null) {
+                try {
+                    factory = MessageFactory.newInstance(protocol(soap12));
+                } catch (SOAPException e) {
+                    throw new WebServiceException(e);
+                }
+                if (soap12) {
+                    soap12MessageFactory = factory;
+                } else {
+                    soap11MessageFactory = factory;
+                }
+            }
+            return factory;
+        }
+    }
+
+    private static boolean isSOAP12(String bindingId) {
+        if (SOAPBinding.SOAP11HTTP_BINDING.equals(bindingId)
+                || SOAPBinding.SOAP11HTTP_MTOM_BINDING.equals(bindingId)) {
+            return false;
+        }
+        if (SOAPBinding.SOAP12HTTP_BINDING.equals(bindingId)
+                || SOAPBinding.SOAP12HTTP_MTOM_BINDING.equals(bindingId)) {
+            return true;
+        }
+        throw new WebServiceException("Unsupported SOAP binding: " + bindingId);
+    }
+
+    private static String protocol(boolean soap12) {
+        return soap12 ? SOAPConstants.SOAP_1_2_PROTOCOL : SOAPConstants.SOAP_1_1_PROTOCOL;
+    }
+}
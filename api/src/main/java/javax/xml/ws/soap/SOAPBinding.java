@@ -90,6 +90,20 @@ public interface SOAPBinding extends Binding {
   **/
   public void setRoles(Set<String> roles);
 
+  /** Gets the roles played by the SOAP binding instance, numbered for
+   *  fast role matching, see {@link SOAPRoles}.
+   *
+   *  <p>The default implementation calls {@code SOAPRoles.of} with
+   *  {@link #getRoles()} on every call. Implementations should create the
+   *  {@code SOAPRoles} in {@code setRoles} and return it.
+   *
+   *  @return The roles played by the binding instance.
+   *  @since JAX-WS 2.4
+  **/
+  public default SOAPRoles getSOAPRoles() {
+    return SOAPRoles.of(getRoles());
+  }
+
   /**
    * Returns {@code true} if the use of MTOM is enabled.
    *
@@ -112,14 +126,32 @@ public interface SOAPBinding extends Binding {
   /**
    * Gets the SAAJ {@code SOAPFactory} instance used by this SOAP binding.
    *
+   * <p>The default implementation returns the factory for the SOAP version
+   * of {@link #getBindingID()}. It is created once per context class loader
+   * and shared by all bindings of that SOAP version, including the MTOM ones.
+   *
    * @return SOAPFactory instance used by this SOAP binding.
+   * @throws javax.xml.ws.WebServiceException If the binding ID is not one of
+   *                  the binding IDs defined by this interface, or the
+   *                  factory cannot be created.
   **/
-  public SOAPFactory getSOAPFactory();
+  public default SOAPFactory getSOAPFactory() {
+    return SAAJFactories.current().getSOAPFactory(getBindingID());
+  }
   
   /**
    * Gets the SAAJ {@code MessageFactory} instance used by this SOAP binding.
    *
+   * <p>The default implementation returns the factory for the SOAP version
+   * of {@link #getBindingID()}. It is created once per context class loader
+   * and shared by all bindings of that SOAP version, including the MTOM ones.
+   *
    * @return MessageFactory instance used by this SOAP binding.
+   * @throws javax.xml.ws.WebServiceException If the binding ID is not one of
+   *                  the binding IDs defined by this interface, or the
+   *                  factory cannot be created.
   **/
-  public MessageFactory getMessageFactory();
+  public default MessageFactory getMessageFactory() {
+    return SAAJFactories.current().getMessageFactory(getBindingID());
+  }
 }
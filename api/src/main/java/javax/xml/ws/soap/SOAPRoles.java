@@ -0,0 +1,222 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.soap;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** An immutable set of SOAP roles played by a SOAP node, with the roles
+ *  numbered with small integer identifiers so that deciding whether a
+ *  header block is targeted at the node is a bit test.
+ *
+ *  <p>The standard SOAP 1.1 and SOAP 1.2 roles have the same identifiers
+ *  in all the {@code SOAPRoles}; the other roles are numbered by each
+ *  {@code SOAPRoles}, that is per binding, so the roles of one application
+ *  do not use up the identifiers of another. The first {@value #MAX_IDS}
+ *  roles get identifiers; roles beyond that limit are still supported,
+ *  through a string comparison. Role URIs found in messages are only
+ *  looked up.
+ *
+ *  @see SOAPBinding#getSOAPRoles()
+ *  @since JAX-WS 2.4
+**/
+public final class SOAPRoles {
+
+  /** The maximum number of roles with an identifier in a {@code SOAPRoles},
+   *  including the standard roles.
+  **/
+  public static final int MAX_IDS = 64;
+
+  /** The SOAP 1.1 {@code next} actor.
+  **/
+  public static final String SOAP11_NEXT = "http://schemas.xmlsoap.org/soap/actor/next";
+
+  /** The SOAP 1.2 {@code next} role.
+  **/
+  public static final String SOAP12_NEXT = "http://www.w3.org/2003/05/soap-envelope/role/next";
+
+  /** The SOAP 1.2 {@code none} role.
+  **/
+  public static final String SOAP12_NONE = "http://www.w3.org/2003/05/soap-envelope/role/none";
+
+  /** The SOAP 1.2 {@code ultimateReceiver} role.
+  **/
+  public static final String SOAP12_ULTIMATE_RECEIVER =
+          "http://www.w3.org/2003/05/soap-envelope/role/ultimateReceiver";
+
+  private static final Map<String, Integer> STANDARD_IDS;
+
+  static {
+    Map<String, Integer> ids = new HashMap<String, Integer>();
+    ids.put(SOAP11_NEXT, 0);
+    ids.put(SOAP12_NEXT, 1);
+    ids.put(SOAP12_ULTIMATE_RECEIVER, 2);
+    ids.put(SOAP12_NONE, 3);
+    STANDARD_IDS = Collections.unmodifiableMap(ids);
+  }
+
+  /** The empty set of roles.
+  **/
+  public static final SOAPRoles EMPTY =
+          new SOAPRoles(Collections.<String>emptySet(), Collections.<String, Integer>emptyMap(), 0L, false);
+
+  private final Set<String> roles;
+  // identifiers of the roles which are not standard
+  private final Map<String, Integer> ids;
+  private final long mask;
+  // whether some roles have no identifier
+  private final boolean overflow;
+
+  private SOAPRoles(Set<String> roles, Map<String, Integer> ids, long mask, boolean overflow) {
+    this.roles = roles;
+    this.ids = ids;
+    this.mask = mask;
+    this.overflow = overflow;
+  }
+
+  /** Creates a {@code SOAPRoles} for the given roles, numbering them.
+   *  Numbering the roles costs a few lookups per role, so callers should
+   *  hold the result, for example per binding, rather than call this method
+   *  for every message; see {@link SOAPBinding#getSOAPRoles()}.
+   *
+   *  @param  roles the role URIs, may be {@code null}
+   *  @return the roles
+  **/
+  public static SOAPRoles of(Set<String> roles) {
+    if (roles == null || roles.isEmpty()) {
+      return EMPTY;
+    }
+    Set<String> copy = new HashSet<String>(roles);
+    Map<String, Integer> ids = new HashMap<String, Integer>();
+    int next = STANDARD_IDS.size();
+    long mask = 0L;
+    boolean overflow = false;
+    for (String role : copy) {
+      Integer id = STANDARD_IDS.get(role);
+      if (id == null && next < MAX_IDS) {
+        id = next++;
+        ids.put(role, id);
+      }
+      if (id != null) {
+        mask |= 1L << id;
+      } else {
+        overflow = true;
+      }
+    }
+    return new SOAPRoles(Collections.unmodifiableSet(copy), ids, mask, overflow);
+  }
+
+  /** Gets the identifier of a role URI in these roles.
+   *
+   *  @param  role the role URI
+   *  @return the identifier in the range {@code [0, }{@value #MAX_IDS}{@code )},
+   *          or {@code -1} if the role has none
+  **/
+  public int getRoleId(String role) {
+    if (role == null) {
+      return -1;
+    }
+    Integer id = STANDARD_IDS.get(role);
+    if (id == null) {
+      id = ids.get(role);
+    }
+    return id == null ? -1 : id;
+  }
+  /** Gets the role URIs.
+   *
+   *  @return an unmodifiable set of the role URIs
+  **/
+  public Set<String> getRoles() {
+    return roles;
+  }
+
+  /** Gets the bitmask of the identifiers of the roles: bit {@code i} is
+   *  set if the role with identifier {@code i} is one of these roles.
+   *
+   *  @return the bitmask of the roles
+  **/
+  public long getMask() {
+    return mask;
+  }
+
+  /** Returns whether the given role is one of these roles.
+   *
+   *  @param  role the role URI
+   *  @return {@code true} if the role is one of these roles
+  **/
+  public boolean plays(String role) {
+    int id = getRoleId(role);
+    if (id >= 0) {
+      return (mask & (1L << id)) != 0;
+    }
+    return overflow && roles.contains(role);
+  }
+
+  /** Returns whether a header block with the given role is targeted at
+   *  a SOAP node playing these roles. A header block without role is
+   *  targeted at the ultimate receiver, which the node is assumed to be.
+   *
+   *  @param  role the role URI of the header block ({@code actor} in
+   *          SOAP 1.1), may be {@code null} or empty
+   *  @return {@code true} if the header block is targeted at the node
+  **/
+  public boolean isTargeted(String role) {
+    return role == null || role.length() == 0 || plays(role);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof SOAPRoles && roles.equals(((SOAPRoles) o).roles);
+  }
+
+  @Override
+  public int hashCode() {
+    return roles.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return roles.toString();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Cache of factory instances resolved by {@link FactoryFinder}, keyed
+ * weakly by the context class loader they were resolved for.
+ * <p>
+ * Cached values are held softly: a provider loaded by the very class loader
+ * used as the key would otherwise keep that class loader reachable and defeat
+ * the weak key. The last hit is published through a volatile field so that
+ * repeated lookups from the same class loader do not take the lock.
+ */
+final class FactoryCache<T> {
+
+    // WeakHashMap does not hold null keys weakly, use a sentinel instead
+    private static final Object NULL_LOADER = new Object();
+
+    private final Map<Object, Reference<T>> cache = new WeakHashMap<Object, Reference<T>>();
+
+    private volatile Entry<T> last;
+
+    // bumped on every invalidation, see #put
+    private int generation;
+
+    /**
+     * Returns cached instance for the given class loader or {@code null}
+     * if there is none.
+     */
+    T get(ClassLoader classLoader) {
+        Object key = key(classLoader);
+        Entry<T> e = last;
+        if (e != null && e.key.get() == key) {
+            T value = e.value.get();
+            if (value != null) {
+                return value;
+            }
+        }
+        synchronized (cache) {
+            Reference<T> ref = cache.get(key);
+            T value = ref == null ? null : ref.get();
+            if (value != null) {
+                last = new Entry<T>(key, ref);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Returns current generation of this cache; the value has to be passed
+     * to {@link #put} so that a lookup racing with {@link #clear} does not
+     * resurrect a stale instance.
+     */
+    int generation() {
+        synchronized (cache) {
+            return generation;
+        }
+    }
+
+    void put(ClassLoader classLoader, T value, int expectedGeneration) {
+        Object key = key(classLoader);
+        synchronized (cache) {
+            if (expectedGeneration != generation) {
+                return;
+            }
+            Reference<T> ref = new SoftReference<T>(value);
+            cache.put(key, ref);
+            last = new Entry<T>(key, ref);
+        }
+    }
+
+    void clear(ClassLoader classLoader) {
+        synchronized (cache) {
+            cache.remove(key(classLoader));
+            generation++;
+            last = null;
+        }
+    }
+
+    void clear() {
+        synchronized (cache) {
+            cache.clear();
+            generation++;
+            last = null;
+        }
+    }
+
+    private static Object key(ClassLoader classLoader) {
+        return classLoader == null ? NULL_LOADER : classLoader;
+    }
+
+    private static final class Entry<T> {
+        final WeakReference<Object> key;
+        final Reference<T> value;
+
+        Entry(Object key, Reference<T> value) {
+            this.key = new WeakReference<Object>(key);
+            this.value = value;
+        }
+    }
+}
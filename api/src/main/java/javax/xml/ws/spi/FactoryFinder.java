@@ -85,11 +85,14 @@ class FactoryFinder {
     @SuppressWarnings("unchecked")
     static <T> T find(Class<T> factoryClass, String fallbackClassName) {
         ClassLoader classLoader = ServiceLoaderUtil.contextClassLoader(EXCEPTION_HANDLER);
+        String factoryId = factoryClass.getName();
 
-        T provider = ServiceLoaderUtil.firstByServiceLoader(factoryClass, logger, EXCEPTION_HANDLER);
+        // the precomputed index stands in for the ServiceLoader scan
+        T provider = (T) fromIndex(factoryId, fallbackClassName, classLoader);
         if (provider != null) return provider;
 
-        String factoryId = factoryClass.getName();
+        provider = ServiceLoaderUtil.firstByServiceLoader(factoryClass, logger, EXCEPTION_HANDLER);
+        if (provider != null) return provider;
 
         // try to read from $java.home/lib/jaxws.properties
         provider = (T) fromJDKProperties(factoryId, fallbackClassName, classLoader);
@@ -113,6 +116,45 @@ class FactoryFinder {
                 fallbackClassName, classLoader, EXCEPTION_HANDLER);
     }
 
+    /**
+     * Same as {@link #find(Class, String)} but consults the given
+     * {@code cache} first. The result of a successful lookup is stored
+     * in the cache under the current context class loader.
+     *
+     * @param factoryClass          the name of the factory to find
+     * @param fallbackClassName     the implementation class name, see {@link #find(Class, String)}
+     * @param cache                 cache of already resolved instances
+     * @exception WebServiceException if there is an error
+     */
+    static <T> T find(Class<T> factoryClass, String fallbackClassName, FactoryCache<T> cache) {
+        ClassLoader classLoader = ServiceLoaderUtil.contextClassLoader(EXCEPTION_HANDLER);
+        T provider = cache.get(classLoader);
+        if (provider != null) return provider;
+
+        int generation = cache.generation();
+        provider = find(factoryClass, fallbackClassName);
+        cache.put(classLoader, provider, generation);
+        return provider;
+    }
+
+    /**
+     * Returns the implementation listed in the {@link FactoryIndex}, which
+     * caches the result of the ServiceLoader scan. The index is not used
+     * when the system property is set, so that an index which became stale
+     * cannot hide an explicit configuration.
+     */
+    private static Object fromIndex(String factoryId,
+                                    String fallbackClassName,
+                                    ClassLoader classLoader) {
+        try {
+            if (System.getProperty(factoryId) != null) {
+                return null;
+            }
+        } catch (SecurityException ignored) {
+        }
+        return FactoryIndex.find(factoryId, fallbackClassName, classLoader);
+    }
+
     private static Object fromSystemProperty(String factoryId,
                                              String fallbackClassName,
                                              ClassLoader classLoader) {
@@ -0,0 +1,120 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.ws.WebServiceException;
+
+/**
+ * Precomputed index of factory implementations.
+ * <p>
+ * The index is a {@link Properties} file named {@value #INDEX_RESOURCE}
+ * mapping the factory class name, e.g. {@code javax.xml.ws.spi.Provider},
+ * to the name of the implementation class. It caches the result of the
+ * ServiceLoader scan: {@link FactoryFinder} consults it in place of the
+ * scan, the rest of the lookup chain is unchanged. If the index is missing,
+ * has no entry for the factory or names a class which cannot be
+ * instantiated, the ServiceLoader scan is run. The index is not used when
+ * the system property named after the factory is set.
+ * <p>
+ * The index is written at build time by the {@code factory-index} profile
+ * of the API build.
+ */
+class FactoryIndex {
+
+    static final String INDEX_RESOURCE = "META-INF/jaxws-factory.index";
+
+    private static final Logger logger = Logger.getLogger("javax.xml.ws");
+
+    private static final ServiceLoaderUtil.ExceptionHandler<WebServiceException> EXCEPTION_HANDLER =
+            new ServiceLoaderUtil.ExceptionHandler<WebServiceException>() {
+                @Override
+                public WebServiceException createException(Throwable throwable, String message) {
+                    return new WebServiceException(message, throwable);
+                }
+            };
+
+    /**
+     * Instantiates the implementation of {@code factoryId} listed
+     * in the index visible to {@code classLoader}.
+     *
+     * @return the implementation or {@code null} if the index does not
+     *         provide a usable one
+     */
+    static Object find(String factoryId, String fallbackClassName, ClassLoader classLoader) {
+        String className = lookup(factoryId, classLoader);
+        if (className == null) {
+            return null;
+        }
+        try {
+            return ServiceLoaderUtil.newInstance(className, fallbackClassName, classLoader, EXCEPTION_HANDLER);
+        } catch (WebServiceException e) {
+            // stale index, continue with the lookup chain
+            logger.log(Level.FINE, "Unable to use [" + className + "] listed in " + INDEX_RESOURCE, e);
+            return null;
+        }
+    }
+
+    private static String lookup(String factoryId, ClassLoader classLoader) {
+        URL url = null;
+        try {
+            url = classLoader == null
+                    ? ClassLoader.getSystemResource(INDEX_RESOURCE)
+                    : classLoader.getResource(INDEX_RESOURCE);
+            if (url == null) {
+                return null;
+            }
+            Properties index = new Properties();
+            try (InputStream in = url.openStream()) {
+                index.load(in);
+            }
+            logger.log(Level.FINE, "Using factory index [{0}]", url);
+            return index.getProperty(factoryId);
+        } catch (Exception ignored) {
+            logger.log(Level.WARNING, "Error reading factory index from [" + url + "].", ignored);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link Invoker} which calls the endpoint implementation through
+ * {@code MethodHandle}s instead of {@link Method#invoke}.
+ * <p>
+ * The first invocation of a {@code Method} converts it into a
+ * {@code MethodHandle} of the generic type {@code (Object, Object...)Object},
+ * which is cached by this invoker. Invocations with up to
+ * four arguments call the handle with the arguments spread
+ * explicitly, avoiding the spreading of the argument array.
+ * <p>
+ * The behaviour matches {@code Method.invoke}: exceptions thrown by the
+ * endpoint method are wrapped in an {@code InvocationTargetException},
+ * arguments not matching the method parameters cause an
+ * {@code IllegalArgumentException}, and methods not accessible through
+ * {@link MethodHandles#publicLookup()} unless made accessible cause an
+ * {@code IllegalAccessException}.
+ * <p>
+ * Containers provide the endpoint instance by implementing
+ * {@link #getEndpoint()} and take care of the injection as usual.
+ *
+ * @see Provider#createEndpoint(String, Class, Invoker, javax.xml.ws.WebServiceFeature...)
+ * @since JAX-WS 2.4
+ */
+public abstract class MethodHandleInvoker extends Invoker {
+
+    // arities with a spread call in invoke()
+    private static final int MAX_SPREAD_ARITY = 4;
+
+    private final ConcurrentMap<Method, MethodHandle> handles = new ConcurrentHashMap<Method, MethodHandle>();
+
+    // the most recently invoked method, compared by identity
+    private volatile Entry last;
+
+    /**
+     * Default constructor.
+     */
+    protected MethodHandleInvoker() {
+    }
+
+    /**
+     * Returns the endpoint instance on which the current invocation
+     * is done.
+     *
+     * @return the endpoint instance
+     */
+    protected abstract Object getEndpoint();
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The method is called on {@link #getEndpoint()} through a cached
+     * {@code MethodHandle}.
+     */
+    @Override
+    public Object invoke(Method m, Object... args)
+    throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        // runtimes usually pass the same Method instance for an operation
+        Entry last = this.last;
+        MethodHandle mh = last != null && last.method == m ? last.handle : handles.get(m);
+        if (mh == null) {
+            mh = handle(m);
+            MethodHandle existing = handles.putIfAbsent(m, mh);
+            if (existing != null) {
+                mh = existing;
+            }
+        }
+        if (last == null || last.method != m) {
+            this.last = new Entry(m, mh);
+        }
+        int arity = args == null ? 0 : args.length;
+        if (arity != m.getParameterCount()) {
+            throw new IllegalArgumentException("wrong number of arguments: " + arity
+                    + ", expected " + m.getParameterCount() + " for " + m);
+        }
+        Object endpoint = getEndpoint();
+        try {
+            switch (arity) {
+                case 0:
+                    return mh.invokeExact(endpoint);
+                case 1:
+                    return mh.invokeExact(endpoint, args[0]);
+                case 2:
+                    return mh.invokeExact(endpoint, args[0], args[1]);
+                case 3:
+                    return mh.invokeExact(endpoint, args[0], args[1], args[2]);
+                case 4:
+                    return mh.invokeExact(endpoint, args[0], args[1], args[2], args[3]);
+                default:
+                    return mh.invokeExact(endpoint, args);
+            }
+        } catch (ClassCastException | NullPointerException e) {
+            // thrown either by the argument conversion or by the method itself
+            checkArguments(m, endpoint, args);
+            throw new InvocationTargetException(e);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private static MethodHandle handle(Method m) throws IllegalAccessException {
+        MethodHandle mh = MethodHandles.publicLookup().unreflect(m);
+        if (Modifier.isStatic(m.getModifiers())) {
+            // like Method.invoke, ignore the target of a static method
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        int arity = m.getParameterCount();
+        mh = mh.asType(MethodType.genericMethodType(arity + 1));
+        if (arity > MAX_SPREAD_ARITY) {
+            mh = mh.asSpreader(Object[].class, arity);
+        }
+        return mh;
+    }
+
+    private static void checkArguments(Method m, Object endpoint, Object[] args) {
+        if (!Modifier.isStatic(m.getModifiers()) && !m.getDeclaringClass().isInstance(endpoint)) {
+            throw new IllegalArgumentException("object is not an instance of declaring class "
+                    + m.getDeclaringClass().getName());
+        }
+        Class<?>[] types = m.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            Object arg = args[i];
+            boolean valid = type.isPrimitive()
+                    ? arg != null && MethodType.methodType(type).wrap().returnType().isInstance(arg)
+                    : arg == null || type.isInstance(arg);
+            if (!valid) {
+                throw new IllegalArgumentException("argument type mismatch at index " + i + " for " + m);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final Method method;
+        final MethodHandle handle;
+
+        Entry(Method method, MethodHandle handle) {
+            this.method = method;
+            this.handle = handle;
+        }
+    }
+}
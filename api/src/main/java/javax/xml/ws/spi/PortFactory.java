@@ -0,0 +1,86 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi;
+
+/**
+ * Creates proxies for one combination of service endpoint interface,
+ * port name and {@code WebServiceFeature}s.
+ * <p>
+ * Port factories are obtained from {@link ServiceDelegate#getPortFactory}
+ * which caches the factories created by an overridden
+ * {@link ServiceDelegate#createPortFactory} per service. JAX-WS implementations override
+ * {@link ServiceDelegate#createPortFactory} to return a factory which
+ * resolves the WSDL metadata, binding and handler chain once and creates
+ * new proxies from the prepared state, e.g. by cloning a prototype proxy.
+ * <p>
+ * A cached factory is shared by all the threads using the service, so
+ * implementations MUST be thread-safe: {@link #createPort()} may be called
+ * concurrently, and the state prepared by the factory must either be
+ * immutable or safely published and copied into each proxy, so that no
+ * proxy shares a request context, handler chain or other mutable state
+ * with another proxy or with the factory.
+ *
+ * @param <T> Service endpoint interface
+ *
+ * @see ServiceDelegate#getPortFactory
+ * @since JAX-WS 2.4
+ */
+public abstract class PortFactory<T> {
+
+    /**
+     * Default constructor.
+     */
+    protected PortFactory() {
+    }
+
+    /**
+     * Creates a new proxy. Each invocation returns a new proxy instance
+     * with its own request context. This method may be called by many
+     * threads concurrently.
+     *
+     * @return Object Proxy instance that supports the service endpoint
+     *         interface of this factory
+     * @throws javax.xml.ws.WebServiceException If there is an error
+     *         in creation of the proxy
+     */
+    public abstract T createPort();
+
+}
@@ -64,6 +64,12 @@ public abstract class Provider {
     private static final String DEFAULT_JAXWSPROVIDER =
             "com.sun"+".xml.internal.ws.spi.ProviderImpl";
 
+    /**
+     * Providers already resolved by {@link #provider()}, keyed by
+     * context class loader.
+     */
+    private static final FactoryCache<Provider> PROVIDERS = new FactoryCache<Provider>();
+
     /**
      * Creates a new instance of Provider
      */
@@ -88,12 +94,28 @@ public abstract class Provider {
      *  is defined, then its value is used as the name of the implementation class.
      *  <li> Finally, a platform default implementation is used.
      * </ul>
+     * <p>
+     * If the resource {@code META-INF/jaxws-factory.index}, a {@link java.util.Properties}
+     * file typically generated at build time, is visible to the context class loader
+     * and names the implementation class with the key {@code javax.xml.ws.spi.Provider},
+     * that class is used instead of the result of the service-provider loading
+     * facilities in the first step. The index is ignored if the system property
+     * {@code javax.xml.ws.spi.Provider} is defined, or if the class it names
+     * cannot be loaded.
+     * <p>
+     * The provider located by this algorithm is cached for the context
+     * class loader of the calling thread and subsequent calls made with
+     * the same context class loader return the cached instance. The cache
+     * does not prevent class loaders from being garbage collected. Use
+     * {@link #clearCache(ClassLoader)} or {@link #clearCache()} to force
+     * the lookup to be repeated, for example after an application
+     * has been redeployed or the configuration has changed.
      *
      * @return provider object
      */
     public static Provider provider() {
         try {
-            return FactoryFinder.find(Provider.class, DEFAULT_JAXWSPROVIDER);
+            return FactoryFinder.find(Provider.class, DEFAULT_JAXWSPROVIDER, PROVIDERS);
         } catch (WebServiceException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -101,6 +123,30 @@ public abstract class Provider {
         }
     }
 
+    /**
+     * Discards the provider cached by {@link #provider()} for the given
+     * context class loader. The next call to {@link #provider()} made with
+     * {@code classLoader} as the context class loader locates the provider
+     * again.
+     *
+     * @param classLoader the context class loader the provider was cached
+     *        for, may be {@code null}
+     *
+     * @since JAX-WS 2.4
+     */
+    public static void clearCache(ClassLoader classLoader) {
+        PROVIDERS.clear(classLoader);
+    }
+
+    /**
+     * Discards all providers cached by {@link #provider()}.
+     *
+     * @since JAX-WS 2.4
+     */
+    public static void clearCache() {
+        PROVIDERS.clear();
+    }
+
     /**
      * Creates a service delegate object.
      *
@@ -40,15 +40,22 @@
 
 package javax.xml.ws.spi;
 
+import java.lang.reflect.Method;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.xml.namespace.QName;
 import javax.xml.ws.Dispatch;
+import javax.xml.ws.DispatchPool;
+import javax.xml.ws.RespectBindingFeature;
 import javax.xml.ws.Service;
 import javax.xml.ws.handler.HandlerResolver;
 import javax.xml.ws.WebServiceFeature;
 import javax.xml.bind.JAXBContext;
 import javax.xml.ws.EndpointReference;
 import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.MTOMFeature;
 
 
 /**
@@ -66,6 +73,36 @@ import javax.xml.ws.WebServiceException;
  */
 public abstract class ServiceDelegate {
 
+    // created lazily by getDispatchPool()
+    private volatile DispatchPool dispatchPool;
+
+    // features are keyed by identity, bound the cache in case
+    // new feature instances are passed to every getPort call
+    private static final int MAX_PORT_FACTORIES = 64;
+
+    // whether the class overrides createPortFactory(), the default factories are not worth caching
+    private static final ClassValue<Boolean> CACHES_PORT_FACTORIES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != ServiceDelegate.class; c = c.getSuperclass()) {
+                try {
+                    for (Method m : c.getDeclaredMethods()) {
+                        if (m.getName().equals("createPortFactory") && !m.isBridge()) {
+                            return Boolean.TRUE;
+                        }
+                    }
+                } catch (SecurityException e) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    };
+
+    // LRU cache of port factories in access order, guarded by itself, see getPortFactory()
+    private final Map<PortKey, PortFactory<?>> portFactories =
+            new LinkedHashMap<PortKey, PortFactory<?>>(16, 0.75f, true);
+
     /**
      * Default constructor.
      */
@@ -649,4 +686,224 @@ public abstract class ServiceDelegate {
      **/
     public abstract void setExecutor(java.util.concurrent.Executor executor);
 
+    /**
+     * Returns the pool of {@code Dispatch} instances created by this
+     * {@code Service} instance.
+     * <p>
+     * The default implementation lazily creates a {@link DispatchPool}
+     * backed by {@link #createDispatch(QName, Class, Service.Mode, WebServiceFeature...)}
+     * and returns the same pool on every invocation. Implementations
+     * may override it to configure the pool.
+     *
+     * @return the pool of {@code Dispatch} instances, never {@code null}
+     *
+     * @see DispatchPool
+     * @since JAX-WS 2.4
+     **/
+    public DispatchPool getDispatchPool() {
+        DispatchPool pool = dispatchPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = dispatchPool;
+                if (pool == null) {
+                    dispatchPool = pool = new DispatchPool(this);
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Returns a {@code PortFactory} creating proxies for the given
+     * service endpoint interface, port name and features.
+     * <p>
+     * If {@link #createPortFactory} is overridden, factories are cached by
+     * this {@code ServiceDelegate}, keyed by the service endpoint interface,
+     * the port name and the {@code features}. The features defined by this
+     * specification are compared by value, so creating them for every call
+     * is fine, other features are compared by identity. The cache keeps
+     * the 64 most recently used factories, which are shared by all the
+     * threads using this {@code ServiceDelegate}, see {@link PortFactory}. Factories not found in the cache
+     * are created by {@code createPortFactory}. Otherwise this method returns
+     * the default factory, which just calls {@code getPort}, without caching.
+     * {@code javax.xml.ws.Service} obtains all proxies, except those
+     * created for an {@code EndpointReference}, through this method.
+     *
+     * @param <T> Service endpoint interface
+     * @param portName  Qualified name of the service endpoint in
+     *                  the WSDL service description, or {@code null} to
+     *                  let the runtime select the port
+     * @param serviceEndpointInterface Service endpoint interface
+     *                  supported by the dynamic proxy
+     * @param features  A list of WebServiceFeatures to configure on the
+     *                  proxy, or {@code null} if the proxy should be created
+     *                  by one of the {@code getPort} methods without features.
+     * @return the port factory, never {@code null}
+     * @throws WebServiceException If the factory cannot be created, see
+     *         {@link #getPort(QName, Class, WebServiceFeature...)}
+     *
+     * @since JAX-WS 2.4
+     */
+    public <T> PortFactory<T> getPortFactory(QName portName,
+            Class<T> serviceEndpointInterface, WebServiceFeature[] features) {
+        if (!CACHES_PORT_FACTORIES.get(getClass())) {
+            return createPortFactory(portName, serviceEndpointInterface, features);
+        }
+        PortKey key = new PortKey(portName, serviceEndpointInterface, features);
+        PortFactory<T> factory;
+        synchronized (portFactories) {
+            @SuppressWarnings("unchecked")
+            PortFactory<T> cached = (PortFactory<T>) portFactories.get(key);
+            factory = cached;
+        }
+        if (factory != null) {
+            return factory;
+        }
+        // created outside of the lock, the runtime may resolve WSDL metadata
+        factory = createPortFactory(portName, serviceEndpointInterface, features);
+        synchronized (portFactories) {
+            @SuppressWarnings("unchecked")
+            PortFactory<T> existing = (PortFactory<T>) portFactories.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            portFactories.put(key, factory);
+            if (portFactories.size() > MAX_PORT_FACTORIES) {
+                Iterator<PortFactory<?>> eldest = portFactories.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Creates a {@code PortFactory} for the given service endpoint
+     * interface, port name and features. Called by {@link #getPortFactory}
+     * on a cache miss.
+     * <p>
+     * The default implementation returns a factory calling the
+     * {@code getPort} method matching the arguments for every proxy.
+     * Implementations should override it to prepare the proxy state once.
+     *
+     * @param <T> Service endpoint interface
+     * @param portName  Qualified name of the service endpoint, may be {@code null}
+     * @param serviceEndpointInterface Service endpoint interface
+     * @param features  A list of WebServiceFeatures, may be {@code null}
+     * @return the port factory, never {@code null}
+     * @throws WebServiceException If the factory cannot be created
+     *
+     * @since JAX-WS 2.4
+     */
+    protected <T> PortFactory<T> createPortFactory(final QName portName,
+            final Class<T> serviceEndpointInterface, final WebServiceFeature[] features) {
+        return new PortFactory<T>() {
+            @Override
+            public T createPort() {
+                if (portName == null) {
+                    return features == null
+                            ? getPort(serviceEndpointInterface)
+                            : getPort(serviceEndpointInterface, features);
+                }
+                return features == null
+                        ? getPort(portName, serviceEndpointInterface)
+                        : getPort(portName, serviceEndpointInterface, features);
+            }
+        };
+    }
+
+    private static final class PortKey {
+        private final QName portName;
+        private final Class<?> serviceEndpointInterface;
+        private final WebServiceFeature[] features;
+        private final int hash;
+
+        PortKey(QName portName, Class<?> serviceEndpointInterface, WebServiceFeature[] features) {
+            this.portName = portName;
+            this.serviceEndpointInterface = serviceEndpointInterface;
+            this.features = features == null ? null : features.clone();
+            int h = portName == null ? 0 : portName.hashCode();
+            h = 31 * h + (serviceEndpointInterface == null ? 0 : serviceEndpointInterface.hashCode());
+            if (features != null) {
+                for (WebServiceFeature f : features) {
+                    h = 31 * h + hashCode(f);
+                }
+            }
+            this.hash = h;
+        }
+
+        private static int hashCode(WebServiceFeature f) {
+            if (f == null || !isStandard(f)) {
+                return System.identityHashCode(f);
+            }
+            int h = 31 * f.getClass().hashCode() + (f.isEnabled() ? 1 : 0);
+            if (f instanceof AddressingFeature) {
+                AddressingFeature a = (AddressingFeature) f;
+                h = 31 * (31 * h + (a.isRequired() ? 1 : 0))
+                        + (a.getResponses() == null ? 0 : a.getResponses().hashCode());
+            } else if (f instanceof MTOMFeature) {
+                h = 31 * h + ((MTOMFeature) f).getThreshold();
+            }
+            return h;
+        }
+
+        // the parameters of features not defined by this specification are unknown
+        private static boolean isStandard(WebServiceFeature f) {
+            Class<?> c = f.getClass();
+            return c == AddressingFeature.class || c == MTOMFeature.class
+                    || c == RespectBindingFeature.class;
+        }
+
+        private static boolean equal(WebServiceFeature a, WebServiceFeature b) {
+            if (a == b) {
+                return true;
+            }
+            if (a == null || b == null || a.getClass() != b.getClass()
+                    || !isStandard(a) || a.isEnabled() != b.isEnabled()) {
+                return false;
+            }
+            if (a instanceof AddressingFeature) {
+                AddressingFeature x = (AddressingFeature) a;
+                AddressingFeature y = (AddressingFeature) b;
+                return x.isRequired() == y.isRequired() && x.getResponses() == y.getResponses();
+            }
+            if (a instanceof MTOMFeature) {
+                return ((MTOMFeature) a).getThreshold() == ((MTOMFeature) b).getThreshold();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PortKey)) {
+                return false;
+            }
+            PortKey k = (PortKey) o;
+            if (hash != k.hash || serviceEndpointInterface != k.serviceEndpointInterface
+                    || !(portName == null ? k.portName == null : portName.equals(k.portName))) {
+                return false;
+            }
+            if (features == null || k.features == null) {
+                return features == k.features;
+            }
+            if (features.length != k.features.length) {
+                return false;
+            }
+            for (int i = 0; i < features.length; i++) {
+                if (!equal(features[i], k.features[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
 }
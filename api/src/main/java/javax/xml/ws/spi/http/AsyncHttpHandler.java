@@ -0,0 +1,132 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi.http;
+
+import javax.xml.ws.Endpoint;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A handler which processes HTTP requests without holding a container
+ * thread while the request is being processed.
+ * <p>
+ * JAX-WS runtime provides the implementation for this and sets
+ * it using {@link HttpContext#setHandler(HttpHandler)} during
+ * {@link Endpoint#publish(HttpContext) }, like any other {@link HttpHandler}.
+ * A container which supports asynchronous processing for an exchange, see
+ * {@link HttpExchange#isAsyncSupported()}, calls {@link #handleAsync}
+ * instead of {@link #handle}, returns its thread, and closes the
+ * exchange when the returned {@code CompletionStage} completes.
+ * Other containers call {@link #handle} which waits for the completion,
+ * so such a container still holds a thread for every request. The first
+ * such call is logged at {@code CONFIG} level.
+ *
+ * @since JAX-WS 2.4
+ */
+public abstract class AsyncHttpHandler extends HttpHandler {
+
+    private static final Logger logger = Logger.getLogger("javax.xml.ws");
+
+    // whether the synchronous fallback has been logged
+    private volatile boolean fallbackLogged;
+
+    /**
+     * Starts handling a given request. The response is generated
+     * asynchronously, the returned {@code CompletionStage} completes once
+     * the response has been written to the exchange, or completes
+     * exceptionally if the request could not be handled. The handler
+     * does not close the exchange, the container does when the returned
+     * {@code CompletionStage} is complete.
+     * <p>
+     * Container invokes this method when it receives an incoming request
+     * and {@link HttpExchange#isAsyncSupported()} is {@code true}.
+     *
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @return the completion of the handling of the exchange
+     */
+    public abstract CompletionStage<Void> handleAsync(HttpExchange exchange);
+
+    /**
+     * Handles a given request and generates an appropriate response,
+     * by calling {@link #handleAsync} and waiting for its completion.
+     * Completion listeners registered with the default
+     * {@link HttpExchange#addCompletionListener} are invoked before
+     * this method returns.
+     *
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @throws IOException when an I/O error happens during request
+     *      handling
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!fallbackLogged) {
+            fallbackLogged = true;
+            logger.log(Level.CONFIG, "{0} is not processed asynchronously, the container "
+                    + "thread waits for each response", getClass().getName());
+        }
+        try {
+            handleAsync(exchange).toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while handling the exchange");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            exchange.complete();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi.http;
+
+import javax.xml.ws.handler.MessageContext;
+import java.security.cert.X509Certificate;
+
+/**
+ * A typed key of an attribute of a {@link HttpExchange} or a
+ * {@link HttpContext}.
+ * <p>
+ * The well-known attributes, like {@link #REQUEST_CIPHER_SUITE}, have a
+ * precomputed slot index in the range {@code [0, }{@link #WELL_KNOWN_COUNT}{@code )},
+ * so that containers can keep their values in a flat array, see
+ * {@link AttributeStore}. Other keys, created with {@link #of}, have
+ * the slot {@code -1}.
+ *
+ * @param <T> the type of the attribute value
+ * @see HttpExchange#getAttribute(AttributeKey)
+ * @since JAX-WS 2.4
+ */
+public final class AttributeKey<T> {
+
+    /**
+     * Key of {@link HttpExchange#REQUEST_CIPHER_SUITE}.
+     */
+    public static final AttributeKey<String> REQUEST_CIPHER_SUITE =
+            new AttributeKey<String>(HttpExchange.REQUEST_CIPHER_SUITE, String.class, 0);
+
+    /**
+     * Key of {@link HttpExchange#REQUEST_KEY_SIZE}.
+     */
+    public static final AttributeKey<Integer> REQUEST_KEY_SIZE =
+            new AttributeKey<Integer>(HttpExchange.REQUEST_KEY_SIZE, Integer.class, 1);
+
+    /**
+     * Key of {@link HttpExchange#REQUEST_X509CERTIFICATE}.
+     */
+    public static final AttributeKey<X509Certificate[]> REQUEST_X509CERTIFICATE =
+            new AttributeKey<X509Certificate[]>(HttpExchange.REQUEST_X509CERTIFICATE, X509Certificate[].class, 2);
+
+    /**
+     * Key of {@link MessageContext#SERVLET_CONTEXT}.
+     */
+    public static final AttributeKey<Object> SERVLET_CONTEXT =
+            new AttributeKey<Object>(MessageContext.SERVLET_CONTEXT, Object.class, 3);
+
+    /**
+     * Key of {@link MessageContext#SERVLET_REQUEST}.
+     */
+    public static final AttributeKey<Object> SERVLET_REQUEST =
+            new AttributeKey<Object>(MessageContext.SERVLET_REQUEST, Object.class, 4);
+
+    /**
+     * Key of {@link MessageContext#SERVLET_RESPONSE}.
+     */
+    public static final AttributeKey<Object> SERVLET_RESPONSE =
+            new AttributeKey<Object>(MessageContext.SERVLET_RESPONSE, Object.class, 5);
+
+    private static final AttributeKey<?>[] WELL_KNOWN = {
+        REQUEST_CIPHER_SUITE, REQUEST_KEY_SIZE, REQUEST_X509CERTIFICATE,
+        SERVLET_CONTEXT, SERVLET_REQUEST, SERVLET_RESPONSE
+    };
+
+    /**
+     * The number of well-known keys, which is also the number of slots.
+     */
+    public static final int WELL_KNOWN_COUNT = WELL_KNOWN.length;
+
+    private final String name;
+    private final Class<T> type;
+    private final int slot;
+
+    private AttributeKey(String name, Class<T> type, int slot) {
+        this.name = name;
+        this.type = type;
+        this.slot = slot;
+    }
+
+    /**
+     * Returns a key for the given attribute name and type. If the name is
+     * the one of a well-known key, that key is returned.
+     *
+     * @param <T> the type of the attribute value
+     * @param name the attribute name
+     * @param type the type of the attribute value
+     * @return the key
+     * @throws IllegalArgumentException if the name is the one of a
+     *         well-known key of an incompatible type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AttributeKey<T> of(String name, Class<T> type) {
+        AttributeKey<?> key = wellKnown(name);
+        if (key == null) {
+            return new AttributeKey<T>(name, type, -1);
+        }
+        if (!type.isAssignableFrom(key.type)) {
+            throw new IllegalArgumentException("Attribute " + name + " is of type "
+                    + key.type.getName() + ", not " + type.getName());
+        }
+        return (AttributeKey<T>) key;
+    }
+
+    /**
+     * Returns the well-known key with the given attribute name.
+     *
+     * @param name the attribute name
+     * @return the key, or {@code null} if there is no well-known
+     *         key with this name
+     */
+    public static AttributeKey<?> wellKnown(String name) {
+        for (AttributeKey<?> key : WELL_KNOWN) {
+            if (key.name.equals(name)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the well-known key with the given slot index.
+     *
+     * @param slot the slot index
+     * @return the key
+     * @throws IndexOutOfBoundsException if slot is not in the range
+     *         {@code [0, }{@link #WELL_KNOWN_COUNT}{@code )}
+     */
+    public static AttributeKey<?> wellKnown(int slot) {
+        return WELL_KNOWN[slot];
+    }
+
+    /**
+     * Returns the attribute name.
+     *
+     * @return the attribute name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the type of the attribute value.
+     *
+     * @return the type of the attribute value
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the slot index of a well-known key, or {@code -1}.
+     *
+     * @return the slot index
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Casts a value to the type of this key.
+     *
+     * @param value the value, may be {@code null}
+     * @return the value
+     * @throws ClassCastException if the value is not of the type of this key
+     */
+    public T cast(Object value) {
+        return type.cast(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AttributeKey)) {
+            return false;
+        }
+        AttributeKey<?> key = (AttributeKey<?>) o;
+        return slot == key.slot && name.equals(key.name) && type == key.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
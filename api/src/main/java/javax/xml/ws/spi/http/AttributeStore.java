@@ -0,0 +1,172 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi.http;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attribute storage which containers can use to implement
+ * {@link HttpExchange#getAttribute} and {@link HttpContext#getAttribute}.
+ * The values of well-known attributes are kept in a flat array indexed by
+ * {@link AttributeKey#getSlot()}; a map is only allocated once a
+ * custom attribute is set.
+ * <p>
+ * An {@code AttributeStore} is not thread-safe.
+ *
+ * @since JAX-WS 2.4
+ */
+public final class AttributeStore {
+
+    private final Object[] slots = new Object[AttributeKey.WELL_KNOWN_COUNT];
+
+    private Map<String, Object> custom;
+
+    /**
+     * Creates an empty {@code AttributeStore}.
+     */
+    public AttributeStore() {
+    }
+
+    /**
+     * Returns the value of the attribute with the given key.
+     *
+     * @param <T> the type of the attribute value
+     * @param key the attribute key
+     * @return the attribute value, or {@code null} if the attribute is not set
+     */
+    public <T> T get(AttributeKey<T> key) {
+        int slot = key.getSlot();
+        return key.cast(slot >= 0 ? slots[slot] : custom == null ? null : custom.get(key.getName()));
+    }
+
+    /**
+     * Returns the value of the attribute with the given name.
+     *
+     * @param name the attribute name
+     * @return the attribute value, or {@code null} if the attribute is not set
+     */
+    public Object get(String name) {
+        AttributeKey<?> key = AttributeKey.wellKnown(name);
+        if (key != null) {
+            return slots[key.getSlot()];
+        }
+        return custom == null ? null : custom.get(name);
+    }
+
+    /**
+     * Sets the value of the attribute with the given key.
+     *
+     * @param <T> the type of the attribute value
+     * @param key the attribute key
+     * @param value the attribute value, or {@code null} to remove the attribute
+     */
+    public <T> void set(AttributeKey<T> key, T value) {
+        int slot = key.getSlot();
+        if (slot >= 0) {
+            slots[slot] = value;
+        } else {
+            setCustom(key.getName(), value);
+        }
+    }
+
+    /**
+     * Sets the value of the attribute with the given name.
+     *
+     * @param name the attribute name
+     * @param value the attribute value, or {@code null} to remove the attribute
+     * @throws ClassCastException if the name is the one of a well-known
+     *         attribute and the value is not of its type
+     */
+    public void set(String name, Object value) {
+        AttributeKey<?> key = AttributeKey.wellKnown(name);
+        if (key != null) {
+            slots[key.getSlot()] = key.cast(value);
+        } else {
+            setCustom(name, value);
+        }
+    }
+
+    /**
+     * Returns the names of all the attributes which are set.
+     *
+     * @return an unmodifiable set of attribute names
+     */
+    public Set<String> getNames() {
+        Set<String> names = new LinkedHashSet<String>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                names.add(AttributeKey.wellKnown(i).getName());
+            }
+        }
+        if (custom != null) {
+            names.addAll(custom.keySet());
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Removes all the attributes, so that this store can be
+     * reused for another exchange.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+        custom = null;
+    }
+
+    private void setCustom(String name, Object value) {
+        if (value == null) {
+            if (custom != null) {
+                custom.remove(name);
+            }
+            return;
+        }
+        if (custom == null) {
+            custom = new HashMap<String, Object>();
+        }
+        custom.put(name, value);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.spi.http;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable, case-insensitive {@code Map} view of HTTP headers, which
+ * containers back directly with their native header storage.
+ * <p>
+ * Containers implement {@link #getValues} and {@link #getNames} on top of
+ * their own header representation and may return the view from
+ * {@link HttpExchange#getRequestHeaders()}, so that no map is built for
+ * a request. Lookups by name go straight to {@link #getValues}; entries are
+ * only materialized while the map is iterated.
+ *
+ * @see HttpExchange#getRequestHeaderValue
+ * @since JAX-WS 2.4
+ */
+public abstract class HeaderView extends AbstractMap<String, List<String>> {
+
+    private Set<Entry<String, List<String>>> entrySet;
+
+    /**
+     * Default constructor.
+     */
+    protected HeaderView() {
+    }
+
+    /**
+     * Returns the values of the header with the given name, in the
+     * order they were included. The name is case-insensitive.
+     *
+     * @param name the name of the header
+     * @return the values of the header, or {@code null}
+     *         if there is no header of that name
+     */
+    protected abstract List<String> getValues(String name);
+
+    /**
+     * Returns the names of the headers, each name once.
+     *
+     * @return the names of the headers
+     */
+    protected abstract Collection<String> getNames();
+
+    /**
+     * Returns the first value of the header with the given name. The
+     * name is case-insensitive. This default implementation returns the
+     * first of {@link #getValues}; containers can override it to return
+     * the value without materializing a list or a {@code String}.
+     *
+     * @param name the name of the header
+     * @return the first value of the header, or {@code null}
+     *         if there is no header of that name
+     */
+    public CharSequence getFirst(String name) {
+        List<String> values = getValues(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        return key instanceof String ? getValues((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return getNames().size();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, List<String>>>() {
+                @Override
+                public Iterator<Entry<String, List<String>>> iterator() {
+                    final Iterator<String> names = getNames().iterator();
+                    return new Iterator<Entry<String, List<String>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return names.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, List<String>> next() {
+                            String name = names.next();
+                            return new SimpleImmutableEntry<String, List<String>>(name, getValues(name));
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException("remove");
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return HeaderView.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+}
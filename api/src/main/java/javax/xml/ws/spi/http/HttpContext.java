@@ -65,7 +65,9 @@ public abstract class HttpContext {
      * JAX-WS runtime sets its handler during
      * {@link Endpoint#publish(HttpContext)} to handle
      * HTTP requests for this context. Container or its extensions
-     * use this handler to process the requests.
+     * use this handler to process the requests. If the handler is an
+     * {@link AsyncHttpHandler}, containers supporting asynchronous
+     * processing should use {@link AsyncHttpHandler#handleAsync}.
      *
      * @param handler the handler to set for this context
      */
@@ -106,6 +108,22 @@ public abstract class HttpContext {
      */
     public abstract Object getAttribute(String name);
 
+    /**
+     * Returns an attribute value for the given typed key.
+     * <p>
+     * The default implementation calls {@link #getAttribute(String)}.
+     *
+     * @param <T> the type of the attribute value
+     * @param key attribute key
+     * @return attribute value
+     * @throws ClassCastException if the attribute value is not of
+     *         the type of the key
+     * @since JAX-WS 2.4
+     */
+    public <T> T getAttribute(AttributeKey<T> key) {
+        return key.cast(getAttribute(key.getName()));
+    }
+
     /**
      * Returns all attribute names for container's configuration
      * and other data that can be used by jax-ws runtime.
@@ -45,10 +45,17 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.security.Principal;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This class encapsulates a HTTP request received and a 
@@ -92,6 +99,23 @@ public abstract class HttpExchange {
     public static final String REQUEST_X509CERTIFICATE =
             "javax.xml.ws.spi.http.request.cert.X509Certificate";
 
+    /**
+     * Response length declaring that the length of the response body
+     * is not known in advance.
+     *
+     * @see #setResponseLength
+     * @since JAX-WS 2.4
+     */
+    public static final long UNKNOWN_LENGTH = -1L;
+
+    // adapters created by the default getRequestChannel()/getResponseChannel()
+    private ReadableByteChannel requestChannel;
+    private WritableByteChannel responseChannel;
+
+    // registered by the default addCompletionListener(), created on first use
+    private List<Runnable> completionListeners;
+    private boolean completed;
+
     /**
      * Returns an immutable Map containing the HTTP headers that were 
      * included with this request. The keys in this Map will be the header 
@@ -102,6 +126,9 @@ public abstract class HttpExchange {
      * presented in the order that they were included in the request.
      * <p>
      * The keys in Map are case-insensitive.
+     * <p>
+     * Containers can return a {@link HeaderView} backed by their
+     * own header storage instead of building a map for every request.
      *
      * @return an immutable Map which can be used to access request headers
      */
@@ -121,6 +148,25 @@ public abstract class HttpExchange {
      */
      public abstract String getRequestHeader(String name);
 
+    /**
+     * Returns the value of the specified request header like
+     * {@link #getRequestHeader}, but as a {@code CharSequence}, so that
+     * containers can return it straight from their header storage without
+     * building a header map or a {@code String}. The header name is
+     * case-insensitive.
+     * <p>
+     * The default implementation returns {@link #getRequestHeader}.
+     *
+     * @param name the name of the request header
+     * @return returns the value of the requested header,
+     *         or null if the request does not have a header of that name
+     * @see HeaderView
+     * @since JAX-WS 2.4
+     */
+    public CharSequence getRequestHeaderValue(String name) {
+        return getRequestHeader(name);
+    }
+
     /**
      * Returns a mutable Map into which the HTTP response headers can be stored
      * and which will be transmitted as part of this response. The keys in the 
@@ -149,6 +195,25 @@ public abstract class HttpExchange {
      */
     public abstract void addResponseHeader(String name, String value);
 
+    /**
+     * Returns the first value of the specified response header set so far.
+     * The header name is case-insensitive. This is a convenience method to
+     * get a response header (instead of using the {@link #getResponseHeaders}).
+     * <p>
+     * The default implementation looks the header up in
+     * {@link #getResponseHeaders}; containers can override it to
+     * read their own header storage.
+     *
+     * @param name the name of the response header
+     * @return the value of the header, or null if the response
+     *         does not have a header of that name
+     * @since JAX-WS 2.4
+     */
+    public CharSequence getResponseHeaderValue(String name) {
+        List<String> values = getResponseHeaders().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
     /**
      * Returns the part of the request's URI from the protocol
      * name up to the query string in the first line of the HTTP request.
@@ -199,6 +264,98 @@ public abstract class HttpExchange {
      */
     public abstract void close() throws IOException;
 
+    /**
+     * Returns whether the container can process this exchange
+     * asynchronously. If {@code true}, the container invokes
+     * {@link AsyncHttpHandler#handleAsync} for an {@code AsyncHttpHandler},
+     * does not hold its thread while the request is being processed, and
+     * closes this exchange when the handling completes. It also invokes
+     * the {@link #addCompletionListener completion listeners} when this
+     * exchange is closed or aborted.
+     * <p>
+     * The default implementation returns {@code false}.
+     *
+     * @return {@code true} if this exchange can be processed asynchronously
+     * @since JAX-WS 2.4
+     */
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    /**
+     * Registers a callback which the container invokes once this exchange
+     * is complete, that is when it has been closed or when it has been
+     * aborted, for example because the client disconnected or a timeout
+     * expired. JAX-WS runtime may use it to release the resources of a
+     * request processed asynchronously.
+     * <p>
+     * If the exchange is already complete, the callback is invoked
+     * immediately.
+     * <p>
+     * The default implementation invokes the callbacks from
+     * {@link #complete}, which {@link AsyncHttpHandler#handle} calls when
+     * it returns, that is when a container that does not process exchanges
+     * asynchronously is done with the exchange. Containers which support
+     * asynchronous processing call {@code complete} when the exchange is
+     * closed or aborted, or override this method.
+     *
+     * @param listener the callback to invoke when the exchange is complete
+     * @since JAX-WS 2.4
+     */
+    public void addCompletionListener(Runnable listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        synchronized (this) {
+            if (!completed) {
+                if (completionListeners == null) {
+                    completionListeners = new ArrayList<Runnable>(2);
+                }
+                completionListeners.add(listener);
+                return;
+            }
+        }
+        runCompletionListener(listener);
+    }
+
+    /**
+     * Marks this exchange as complete and invokes, in the calling thread,
+     * the callbacks registered by the default {@link #addCompletionListener}.
+     * A callback which throws a {@code RuntimeException} is logged and does
+     * not prevent the others from being invoked. Only the first call has
+     * an effect.
+     * <p>
+     * It is called by {@link AsyncHttpHandler#handle} when the handling
+     * completes. A container which processes exchanges asynchronously calls
+     * it once the exchange has been closed or aborted.
+     *
+     * @since JAX-WS 2.4
+     */
+    protected void complete() {
+        List<Runnable> listeners;
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            listeners = completionListeners;
+            completionListeners = null;
+        }
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                runCompletionListener(listener);
+            }
+        }
+    }
+
+    private static void runCompletionListener(Runnable listener) {
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            Logger.getLogger("javax.xml.ws").log(Level.WARNING, "Exchange completion listener failed", e);
+        }
+    }
+
     /**
      * Returns a stream from which the request body can be read.
      * Multiple calls to this method will return the same stream.
@@ -219,6 +376,104 @@ public abstract class HttpExchange {
      */
     public abstract OutputStream getResponseBody() throws IOException;
 
+    /**
+     * Returns whether the container provides the request and response bodies
+     * as channels natively. If {@code false}, the channel and
+     * {@code ByteBuffer} methods of this class are adapters over
+     * {@link #getRequestBody} and {@link #getResponseBody}, which copy
+     * the bytes through heap arrays.
+     * <p>
+     * The default implementation returns {@code false}. Containers
+     * overriding {@link #getRequestChannel} and {@link #getResponseChannel}
+     * should override this method to return {@code true}.
+     *
+     * @return {@code true} if the body channels are provided by the container
+     * @since JAX-WS 2.4
+     */
+    public boolean isChannelSupported() {
+        return false;
+    }
+
+    /**
+     * Returns a channel from which the request body can be read.
+     * Multiple calls to this method will return the same channel.
+     * The channel reads from the same body as the stream returned
+     * by {@link #getRequestBody}; only one of them should be used.
+     * <p>
+     * The default implementation adapts {@link #getRequestBody}.
+     * Containers can override it to read directly from the connection,
+     * e.g. into direct buffers.
+     *
+     * @return the channel from which the request body can be read.
+     * @throws IOException if any i/o error during request processing
+     * @see #isChannelSupported
+     * @since JAX-WS 2.4
+     */
+    public ReadableByteChannel getRequestChannel() throws IOException {
+        if (requestChannel == null) {
+            requestChannel = Channels.newChannel(getRequestBody());
+        }
+        return requestChannel;
+    }
+
+    /**
+     * Returns a channel to which the response body must be written.
+     * {@link #setStatus} must be called prior to calling this method.
+     * Multiple calls to this method (for the same exchange) will return
+     * the same channel. The channel writes to the same body as the stream
+     * returned by {@link #getResponseBody}; only one of them should be used.
+     * <p>
+     * The default implementation adapts {@link #getResponseBody}.
+     * Containers can override it to write directly to the connection,
+     * so that for instance {@code FileChannel.transferTo} can send a
+     * file without copying it through the heap.
+     *
+     * @return the channel to which the response body is written
+     * @throws IOException if any i/o error during response processing
+     * @see #isChannelSupported
+     * @since JAX-WS 2.4
+     */
+    public WritableByteChannel getResponseChannel() throws IOException {
+        if (responseChannel == null) {
+            responseChannel = Channels.newChannel(getResponseBody());
+        }
+        return responseChannel;
+    }
+
+    /**
+     * Reads a sequence of bytes of the request body into the given buffer.
+     * This is a convenience method to read from the
+     * {@link #getRequestChannel() request channel}.
+     *
+     * @param dst the buffer into which bytes are to be transferred
+     * @return the number of bytes read, possibly zero, or {@code -1}
+     *         if the end of the request body has been reached
+     * @throws IOException if any i/o error during request processing
+     * @see ReadableByteChannel#read(ByteBuffer)
+     * @since JAX-WS 2.4
+     */
+    public int readRequestBody(ByteBuffer dst) throws IOException {
+        return getRequestChannel().read(dst);
+    }
+
+    /**
+     * Writes all the remaining bytes of the given buffer to the response body.
+     * This is a convenience method to write to the
+     * {@link #getResponseChannel() response channel}.
+     * {@link #setStatus} must be called prior to calling this method.
+     *
+     * @param src the buffer from which bytes are to be retrieved
+     * @throws IOException if any i/o error during response processing
+     * @see WritableByteChannel#write(ByteBuffer)
+     * @since JAX-WS 2.4
+     */
+    public void writeResponseBody(ByteBuffer src) throws IOException {
+        WritableByteChannel channel = getResponseChannel();
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
     /**
      * Sets the HTTP status code for the response.
      *
@@ -230,6 +485,55 @@ public abstract class HttpExchange {
      */
     public abstract void setStatus(int status);
 
+    /**
+     * Declares the length of the response body. A length of
+     * {@link #UNKNOWN_LENGTH} declares that the length is not known in
+     * advance; the container then streams the response, for instance with
+     * the HTTP/1.1 chunked transfer encoding, instead of buffering it to
+     * compute the {@code Content-Length}. Trailers are not used.
+     *
+     * <p>
+     * This method must be called after {@link #setStatus} and prior to
+     * calling {@link #getResponseBody} or {@link #getResponseChannel}. If it
+     * is not called, the container decides how the response is sent.
+     * <p>
+     * The length is a hint, the framing of the response is left to the
+     * container. The default implementation only validates the argument,
+     * a container which frames the response itself could otherwise send
+     * a {@code Content-Length} header together with the chunked transfer
+     * encoding. Containers which can use the length should override it.
+     *
+     * @param length the number of bytes of the response body,
+     *        or {@link #UNKNOWN_LENGTH}
+     * @throws IllegalArgumentException if length is negative
+     *         and not {@link #UNKNOWN_LENGTH}
+     * @see #flushResponseBody
+     * @since JAX-WS 2.4
+     */
+    public void setResponseLength(long length) {
+        if (length < UNKNOWN_LENGTH) {
+            throw new IllegalArgumentException("Illegal response length: " + length);
+        }
+    }
+
+    /**
+     * Hints that the response body written so far forms a useful unit
+     * that should be sent to the client now, for example the start of
+     * a SOAP envelope or a complete MIME part of an MTOM message. A
+     * streaming container sends the pending bytes, e.g. as one chunk;
+     * other containers may ignore the hint.
+     * <p>
+     * The default implementation flushes the stream returned
+     * by {@link #getResponseBody}.
+     *
+     * @throws IOException if any i/o error during response processing
+     * @see #setResponseLength
+     * @since JAX-WS 2.4
+     */
+    public void flushResponseBody() throws IOException {
+        getResponseBody().flush();
+    }
+
     /**
      * Returns the unresolved address of the remote entity invoking
      * this request.
@@ -312,6 +616,27 @@ public abstract class HttpExchange {
      */
     public abstract Object getAttribute(String name);
 
+    /**
+     * Returns the attribute with the given typed key. See
+     * {@link #getAttribute(String)}.
+     * <p>
+     * The default implementation calls {@link #getAttribute(String)}.
+     * Containers can override it to look well-known attributes up by
+     * {@link AttributeKey#getSlot() slot}, for example with an
+     * {@link AttributeStore}.
+     *
+     * @param <T> the type of the attribute value
+     * @param key attribute key
+     * @return the attribute value, or {@code null} if the attribute doesn't
+     *         exist
+     * @throws ClassCastException if the attribute value is not of
+     *         the type of the key
+     * @since JAX-WS 2.4
+     */
+    public <T> T getAttribute(AttributeKey<T> key) {
+        return key.cast(getAttribute(key.getName()));
+    }
+
     /**
      * Gives all the attribute names that are associated with
      * this {@code HttpExchange}.
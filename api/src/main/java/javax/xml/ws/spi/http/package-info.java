@@ -93,6 +93,24 @@
                                           7. Writes the response to HttpExchange
   }</pre>
 
+  <p>
+  If the runtime registers an {@link javax.xml.ws.spi.http.AsyncHttpHandler}
+  and the container supports asynchronous processing of an exchange
+  ({@link javax.xml.ws.spi.http.HttpExchange#isAsyncSupported}), the
+  container thread is not held while the request is processed:
+  <pre>{@literal
+  Container                               JAX-WS runtime
+  ---------                               --------------
+  1. Creates a HttpExchange
+  2. Gets handler from HttpContext
+  3. AsyncHttpHandler.handleAsync(    --> 4. reads request from HttpExchange
+         HttpExchange)                <-- 5. returns a CompletionStage
+     container thread is released         6. Calls Invoker
+                                          7. Writes the response to HttpExchange
+                                          8. Completes the CompletionStage
+  9. Closes the HttpExchange
+  }</pre>
+
   <p>
   The portable undeployment is done as below:
   <pre>
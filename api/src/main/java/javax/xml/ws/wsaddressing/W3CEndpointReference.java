@@ -46,6 +46,7 @@ import org.w3c.dom.Element;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAnyAttribute;
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlElement;
@@ -53,12 +54,18 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.XmlValue;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamResult;
 import javax.xml.ws.EndpointReference;
 import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 
 /**
@@ -84,7 +91,14 @@ import java.util.Map;
 @XmlType(name="EndpointReferenceType",namespace=W3CEndpointReference.NS)
 public final class W3CEndpointReference extends EndpointReference {
 
-    private final JAXBContext w3cjc = getW3CJaxbContext();
+    // JAXBContext is expensive to create and thread-safe, one instance is
+    // shared by all EPRs; created lazily, see getW3CJaxbContext()
+    private static volatile JAXBContext w3cjc;
+
+    // (Un)Marshallers are not thread-safe, idle ones are kept in small pools
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final BlockingQueue<Marshaller> MARSHALLERS = new ArrayBlockingQueue<Marshaller>(POOL_SIZE);
+    private static final BlockingQueue<Unmarshaller> UNMARSHALLERS = new ArrayBlockingQueue<Unmarshaller>(POOL_SIZE);
 
     // should be changed to package private, keeping original modifier to keep backwards compatibility
 
@@ -116,8 +130,19 @@ public final class W3CEndpointReference extends EndpointReference {
      *   If the {@code null} {@code source} value is given
      */
     public W3CEndpointReference(Source source) {
+        if (W3CEndpointReferenceCodec.isSupported(source)) {
+            try {
+                W3CEndpointReferenceCodec.read(source, this);
+            } catch (XMLStreamException e) {
+                throw new WebServiceException("Error unmarshalling W3CEndpointReference " ,e);
+            }
+            return;
+        }
         try {
-            W3CEndpointReference epr = w3cjc.createUnmarshaller().unmarshal(source,W3CEndpointReference.class).getValue();
+            Unmarshaller unmarshaller = acquireUnmarshaller();
+            W3CEndpointReference epr = unmarshaller.unmarshal(source,W3CEndpointReference.class).getValue();
+            // only unmarshallers which completed successfully are reused
+            UNMARSHALLERS.offer(unmarshaller);
             this.address = epr.address;
             this.metadata = epr.metadata;
             this.referenceParameters = epr.referenceParameters;
@@ -135,29 +160,99 @@ public final class W3CEndpointReference extends EndpointReference {
      */
     @Override
     public void writeTo(Result result){
+        if (W3CEndpointReferenceCodec.isSupported(result)) {
+            try {
+                if (template != null && template.writeTo(this, result)) {
+                    return;
+                }
+                W3CEndpointReferenceCodec.write(this, result);
+            } catch (XMLStreamException e) {
+                throw new WebServiceException("Error marshalling W3CEndpointReference. ", e);
+            }
+            return;
+        }
         try {
-            Marshaller marshaller = w3cjc.createMarshaller();
+            Marshaller marshaller = acquireMarshaller();
             marshaller.marshal(this, result);
+            MARSHALLERS.offer(marshaller);
         } catch (JAXBException e) {
             throw new WebServiceException("Error marshalling W3CEndpointReference. ", e);
         }
     }
 
-    private static JAXBContext getW3CJaxbContext() {
+    /**
+     * {@inheritDoc}
+     * <p>
+     * {@code W3CEndpointReference} is immutable, the string
+     * representation is computed on first use and cached.
+     */
+    @Override
+    public String toString() {
+        String s = string;
+        if (s == null) {
+            StringWriter w = new StringWriter(256);
+            writeTo(new StreamResult(w));
+            string = s = w.toString();
+        }
+        return s;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Appends the cached string representation, see {@link #toString()}.
+     */
+    @Override
+    public void appendTo(Appendable appendable) {
         try {
-            return JAXBContext.newInstance(W3CEndpointReference.class);
-        } catch (JAXBException e) {
-            throw new WebServiceException("Error creating JAXBContext for W3CEndpointReference. ", e);
+            appendable.append(toString());
+        } catch (IOException e) {
+            throw new WebServiceException("Error writing W3CEndpointReference. ", e);
+        }
+    }
+
+    private static JAXBContext getW3CJaxbContext() {
+        JAXBContext jc = w3cjc;
+        if (jc == null) {
+            synchronized (W3CEndpointReference.class) {
+                jc = w3cjc;
+                if (jc == null) {
+                    try {
+                        jc = JAXBContext.newInstance(W3CEndpointReference.class);
+                    } catch (JAXBException e) {
+                        throw new WebServiceException("Error creating JAXBContext for W3CEndpointReference. ", e);
+                    }
+                    w3cjc = jc;
+                }
+            }
         }
+        return jc;
     }
 
-    // private but necessary properties for databinding
+    private static Marshaller acquireMarshaller() throws JAXBException {
+        Marshaller marshaller = MARSHALLERS.poll();
+        return marshaller != null ? marshaller : getW3CJaxbContext().createMarshaller();
+    }
+
+    private static Unmarshaller acquireUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLERS.poll();
+        return unmarshaller != null ? unmarshaller : getW3CJaxbContext().createUnmarshaller();
+    }
+
+    // string representation, computed lazily by toString()
+    private volatile String string;
+
+    // template this EPR has been created from, if any
+    W3CEndpointReferenceTemplate template;
+
+    // necessary properties for databinding, not private so that
+    // W3CEndpointReferenceCodec can read and write them directly
     @XmlElement(name="Address",namespace=NS)
-    private Address address;
+    Address address;
     @XmlElement(name="ReferenceParameters",namespace=NS)
-    private Elements referenceParameters;
+    Elements referenceParameters;
     @XmlElement(name="Metadata",namespace=NS)
-    private Elements metadata;
+    Elements metadata;
     // attributes and elements are not private for performance reasons
     // (JAXB can bypass reflection)
     @XmlAnyAttribute
@@ -167,7 +262,7 @@ public final class W3CEndpointReference extends EndpointReference {
 
 
     @XmlType(name="address", namespace=W3CEndpointReference.NS)
-    private static class Address {
+    static class Address {
         protected Address() {}
         @XmlValue
         String uri;
@@ -177,7 +272,7 @@ public final class W3CEndpointReference extends EndpointReference {
 
 
     @XmlType(name="elements", namespace=W3CEndpointReference.NS)
-    private static class Elements {
+    static class Elements {
         protected Elements() {}
         @XmlAnyElement
         List<Element> elements;
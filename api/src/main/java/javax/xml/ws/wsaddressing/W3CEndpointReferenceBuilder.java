@@ -361,6 +361,34 @@ public final class W3CEndpointReferenceBuilder {
                 referenceParameters, elements, attributes);
     }
     
+    /**
+     * Builds a {@code W3CEndpointReferenceTemplate} from the accumulated
+     * properties set on this {@code W3CEndpointReferenceBuilder}
+     * instance.
+     * <p>
+     * The {@code W3CEndpointReference} described by this builder is built
+     * and validated once, as by {@link #build()}. The returned template can
+     * then be used to create any number of {@code W3CEndpointReference}
+     * instances which share all the properties set on this builder and
+     * differ in the additional reference parameters only. This avoids
+     * building a new {@code W3CEndpointReference} for every message when
+     * only a reference parameter changes.
+     *
+     * @return {@code W3CEndpointReferenceTemplate} from the accumulated
+     * properties set on this {@code W3CEndpointReferenceBuilder}
+     * instance. This method never returns {@code null}.
+     *
+     * @throws IllegalStateException in the same cases as {@link #build()}
+     * @throws WebServiceException If an error occurs while creating the
+     *                             {@code W3CEndpointReference}.
+     *
+     * @see W3CEndpointReferenceTemplate#create
+     * @since JAX-WS 2.4
+     */
+    public W3CEndpointReferenceTemplate buildTemplate() {
+        return new W3CEndpointReferenceTemplate(build());
+    }
+
     private String address;
     private List<Element> referenceParameters;
     private List<Element> metadata;
@@ -0,0 +1,553 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.wsaddressing;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.stax.StAXResult;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.WebServiceException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming reader and writer of the {@code W3CEndpointReference} infoset.
+ * <p>
+ * The infoset of an EPR is small and fixed, so {@code StAXSource},
+ * {@code StreamSource}, {@code StAXResult} and {@code StreamResult} are
+ * processed directly with StAX instead of going through JAXB databinding.
+ * Extension elements, reference parameters and metadata are kept as DOM
+ * elements the same way JAXB does for {@code @XmlAnyElement} properties.
+ * Other {@code Source} and {@code Result} types are left to JAXB, see
+ * {@link #isSupported(Source)} and {@link #isSupported(Result)}.
+ */
+final class W3CEndpointReferenceCodec {
+
+    private static final String NS = W3CEndpointReference.NS;
+    private static final String ENDPOINT_REFERENCE = "EndpointReference";
+    private static final String ADDRESS = "Address";
+    private static final String REFERENCE_PARAMETERS = "ReferenceParameters";
+    private static final String METADATA = "Metadata";
+
+    private W3CEndpointReferenceCodec() {
+    }
+
+    static boolean isSupported(Source source) {
+        if (source instanceof StAXSource) {
+            return ((StAXSource) source).getXMLStreamReader() != null;
+        }
+        if (source instanceof StreamSource) {
+            StreamSource ss = (StreamSource) source;
+            return ss.getReader() != null || ss.getInputStream() != null;
+        }
+        return false;
+    }
+
+    static boolean isSupported(Result result) {
+        if (result instanceof StAXResult) {
+            return ((StAXResult) result).getXMLStreamWriter() != null;
+        }
+        if (result instanceof StreamResult) {
+            StreamResult sr = (StreamResult) result;
+            return sr.getWriter() != null || sr.getOutputStream() != null;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the EPR infoset from the {@code source} into {@code epr}.
+     * The {@code source} has to be {@link #isSupported(Source) supported}.
+     */
+    static void read(Source source, W3CEndpointReference epr) throws XMLStreamException {
+        if (source instanceof StAXSource) {
+            read(((StAXSource) source).getXMLStreamReader(), epr);
+            return;
+        }
+        StreamSource ss = (StreamSource) source;
+        XMLInputFactory factory = Factories.INPUT;
+        XMLStreamReader reader = ss.getReader() != null
+                ? factory.createXMLStreamReader(ss.getSystemId(), ss.getReader())
+                : factory.createXMLStreamReader(ss.getSystemId(), ss.getInputStream());
+        try {
+            read(reader, epr);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes the EPR infoset of {@code epr} to the {@code result}.
+     * The {@code result} has to be {@link #isSupported(Result) supported}.
+     */
+    static void write(W3CEndpointReference epr, Result result) throws XMLStreamException {
+        if (result instanceof StAXResult) {
+            write(epr, ((StAXResult) result).getXMLStreamWriter());
+            return;
+        }
+        StreamResult sr = (StreamResult) result;
+        XMLOutputFactory factory = Factories.OUTPUT;
+        XMLStreamWriter writer = sr.getWriter() != null
+                ? factory.createXMLStreamWriter(sr.getWriter())
+                : factory.createXMLStreamWriter(sr.getOutputStream(), "UTF-8");
+        try {
+            write(epr, writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    // --- reading
+
+    private static void read(XMLStreamReader r, W3CEndpointReference epr) throws XMLStreamException {
+        while (r.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            if (!r.hasNext()) {
+                throw new XMLStreamException("Source did not contain W3CEndpointReference");
+            }
+            r.next();
+        }
+        if (!NS.equals(r.getNamespaceURI()) || !ENDPOINT_REFERENCE.equals(r.getLocalName())) {
+            // same as the JAXB path, which fails on the cast of the unmarshalled root
+            throw new WebServiceException("Source did not contain W3CEndpointReference");
+        }
+        // in-scope namespaces, copied to DOM fragments so that QNames in content stay resolvable
+        NamespaceSupport nss = new NamespaceSupport();
+        Document doc = null;
+
+        pushContext(r, nss);
+        epr.attributes = readAttributes(r);
+        while (nextTag(r) == XMLStreamConstants.START_ELEMENT) {
+            String uri = r.getNamespaceURI();
+            String local = r.getLocalName();
+            if (NS.equals(uri) && ADDRESS.equals(local)) {
+                epr.address = readAddress(r);
+            } else if (NS.equals(uri) && REFERENCE_PARAMETERS.equals(local)) {
+                if (doc == null) doc = newDocument();
+                epr.referenceParameters = readElements(r, nss, doc);
+            } else if (NS.equals(uri) && METADATA.equals(local)) {
+                if (doc == null) doc = newDocument();
+                epr.metadata = readElements(r, nss, doc);
+            } else {
+                if (doc == null) doc = newDocument();
+                if (epr.elements == null) {
+                    epr.elements = new ArrayList<Element>();
+                }
+                epr.elements.add(readElement(r, nss, doc, true));
+            }
+        }
+        nss.popContext();
+    }
+
+    private static W3CEndpointReference.Address readAddress(XMLStreamReader r) throws XMLStreamException {
+        W3CEndpointReference.Address address = new W3CEndpointReference.Address();
+        address.attributes = readAttributes(r);
+        StringBuilder text = new StringBuilder();
+        int depth = 0;
+        while (true) {
+            int event = r.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                // not allowed by the schema, ignored as JAXB does
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth-- == 0) break;
+            } else if (depth == 0 && isText(event)) {
+                text.append(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+            }
+        }
+        address.uri = text.toString();
+        return address;
+    }
+
+    private static W3CEndpointReference.Elements readElements(XMLStreamReader r,
+            NamespaceSupport nss, Document doc) throws XMLStreamException {
+        W3CEndpointReference.Elements elements = new W3CEndpointReference.Elements();
+        pushContext(r, nss);
+        elements.attributes = readAttributes(r);
+        while (nextTag(r) == XMLStreamConstants.START_ELEMENT) {
+            if (elements.elements == null) {
+                elements.elements = new ArrayList<Element>();
+            }
+            elements.elements.add(readElement(r, nss, doc, true));
+        }
+        nss.popContext();
+        return elements;
+    }
+
+    private static Element readElement(XMLStreamReader r, NamespaceSupport nss,
+            Document doc, boolean fragmentRoot) throws XMLStreamException {
+        Element e = doc.createElementNS(emptyToNull(r.getNamespaceURI()), qname(r.getPrefix(), r.getLocalName()));
+        for (int i = 0; i < r.getNamespaceCount(); i++) {
+            String prefix = r.getNamespacePrefix(i);
+            e.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, xmlnsQName(prefix), nullToEmpty(r.getNamespaceURI(i)));
+        }
+        if (fragmentRoot) {
+            // declare namespaces inherited from ancestors of the fragment
+            Enumeration<?> prefixes = nss.getPrefixes();
+            while (prefixes.hasMoreElements()) {
+                declareInherited(e, (String) prefixes.nextElement(), nss);
+            }
+            declareInherited(e, "", nss);
+        }
+        for (int i = 0; i < r.getAttributeCount(); i++) {
+            e.setAttributeNS(emptyToNull(r.getAttributeNamespace(i)),
+                    qname(r.getAttributePrefix(i), r.getAttributeLocalName(i)), r.getAttributeValue(i));
+        }
+        while (true) {
+            int event = r.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    e.appendChild(readElement(r, nss, doc, false));
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return e;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    e.appendChild(doc.createTextNode(r.getText()));
+                    break;
+                case XMLStreamConstants.CDATA:
+                    e.appendChild(doc.createCDATASection(r.getText()));
+                    break;
+                default:
+                    // comments and processing instructions are dropped, as
+                    // by JAXB; entity references are reported as text
+                    break;
+            }
+        }
+    }
+
+    private static void declareInherited(Element e, String prefix, NamespaceSupport nss) {
+        if (XMLConstants.XML_NS_PREFIX.equals(prefix) || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+            // bound implicitly, must not be declared
+            return;
+        }
+        String uri = nss.getURI(prefix);
+        if (uri == null || e.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, prefix.length() == 0 ? "xmlns" : prefix)) {
+            return;
+        }
+        e.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, xmlnsQName(prefix), uri);
+    }
+
+    private static Map<QName, String> readAttributes(XMLStreamReader r) {
+        int count = r.getAttributeCount();
+        if (count == 0) {
+            return null;
+        }
+        Map<QName, String> attributes = new HashMap<QName, String>();
+        for (int i = 0; i < count; i++) {
+            attributes.put(r.getAttributeName(i), r.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    private static void pushContext(XMLStreamReader r, NamespaceSupport nss) {
+        nss.pushContext();
+        for (int i = 0; i < r.getNamespaceCount(); i++) {
+            nss.declarePrefix(nullToEmpty(r.getNamespacePrefix(i)), nullToEmpty(r.getNamespaceURI(i)));
+        }
+    }
+
+    // like XMLStreamReader.nextTag(), but skips comments and PIs only and ignores stray text
+    private static int nextTag(XMLStreamReader r) throws XMLStreamException {
+        int event;
+        do {
+            event = r.next();
+        } while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT);
+        return event;
+    }
+
+    private static boolean isText(int event) {
+        return event == XMLStreamConstants.CHARACTERS
+                || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.SPACE;
+    }
+
+    // --- writing
+
+    private static void write(W3CEndpointReference epr, XMLStreamWriter w) throws XMLStreamException {
+        NamespaceSupport nss = writeHead(epr, w);
+        writeElements(w, nss, REFERENCE_PARAMETERS, epr.referenceParameters);
+        writeTail(epr, w, nss);
+    }
+
+    /**
+     * Writes the start of the document, the {@code wsa:EndpointReference} start
+     * tag and {@code wsa:Address}, i.e. everything that precedes
+     * {@code wsa:ReferenceParameters}.
+     *
+     * @return namespace context of the {@code wsa:EndpointReference} element
+     */
+    static NamespaceSupport writeHead(W3CEndpointReference epr, XMLStreamWriter w) throws XMLStreamException {
+        NamespaceSupport nss = new NamespaceSupport();
+        w.writeStartDocument("UTF-8", "1.0");
+        nss.pushContext();
+        w.writeStartElement("", ENDPOINT_REFERENCE, NS);
+        declare(w, nss, "", NS);
+        writeAttributes(w, nss, epr.attributes);
+        if (epr.address != null) {
+            w.writeStartElement("", ADDRESS, NS);
+            nss.pushContext();
+            writeAttributes(w, nss, epr.address.attributes);
+            if (epr.address.uri != null) {
+                w.writeCharacters(epr.address.uri);
+            }
+            w.writeEndElement();
+            nss.popContext();
+        }
+        return nss;
+    }
+
+    /**
+     * Writes {@code wsa:ReferenceParameters} in the namespace context
+     * returned by {@link #writeHead}.
+     */
+    static void writeReferenceParameters(W3CEndpointReference.Elements referenceParameters,
+            XMLStreamWriter w, NamespaceSupport nss) throws XMLStreamException {
+        writeElements(w, nss, REFERENCE_PARAMETERS, referenceParameters);
+        w.flush();
+    }
+
+    /**
+     * Writes everything that follows {@code wsa:ReferenceParameters}.
+     */
+    static void writeTail(W3CEndpointReference epr, XMLStreamWriter w, NamespaceSupport nss) throws XMLStreamException {
+        writeElements(w, nss, METADATA, epr.metadata);
+        if (epr.elements != null) {
+            for (Element e : epr.elements) {
+                writeElement(w, nss, e);
+            }
+        }
+        w.writeEndElement();
+        nss.popContext();
+        w.writeEndDocument();
+        w.flush();
+    }
+
+    private static void writeElements(XMLStreamWriter w, NamespaceSupport nss,
+            String local, W3CEndpointReference.Elements elements) throws XMLStreamException {
+        if (elements == null) {
+            return;
+        }
+        w.writeStartElement("", local, NS);
+        nss.pushContext();
+        writeAttributes(w, nss, elements.attributes);
+        if (elements.elements != null) {
+            for (Element e : elements.elements) {
+                writeElement(w, nss, e);
+            }
+        }
+        w.writeEndElement();
+        nss.popContext();
+    }
+
+    private static void writeAttributes(XMLStreamWriter w, NamespaceSupport nss,
+            Map<QName, String> attributes) throws XMLStreamException {
+        if (attributes == null) {
+            return;
+        }
+        for (Map.Entry<QName, String> a : attributes.entrySet()) {
+            QName name = a.getKey();
+            writeAttribute(w, nss, name.getPrefix(), name.getNamespaceURI(), name.getLocalPart(), a.getValue());
+        }
+    }
+
+    private static void writeAttribute(XMLStreamWriter w, NamespaceSupport nss,
+            String prefix, String uri, String local, String value) throws XMLStreamException {
+        if (uri == null || uri.length() == 0) {
+            w.writeAttribute(local, value);
+            return;
+        }
+        if (prefix == null || prefix.length() == 0 || !uri.equals(nss.getURI(prefix))) {
+            // attributes in a namespace need a non-empty prefix bound to that namespace
+            String bound = nss.getPrefix(uri);
+            if (bound != null) {
+                prefix = bound;
+            } else if (prefix == null || prefix.length() == 0 || nss.getURI(prefix) != null) {
+                prefix = newPrefix(nss);
+            }
+            declare(w, nss, prefix, uri);
+        }
+        w.writeAttribute(prefix, uri, local, value);
+    }
+
+    private static void writeElement(XMLStreamWriter w, NamespaceSupport nss, Element e) throws XMLStreamException {
+        String prefix = nullToEmpty(e.getPrefix());
+        String uri = nullToEmpty(e.getNamespaceURI());
+        String local = e.getLocalName() != null ? e.getLocalName() : e.getNodeName();
+        nss.pushContext();
+        w.writeStartElement(prefix, local, uri);
+
+        NamedNodeMap attrs = e.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Attr a = (Attr) attrs.item(i);
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(a.getNamespaceURI())) {
+                String p = "xmlns".equals(a.getPrefix()) ? a.getLocalName() : "";
+                declare(w, nss, p, a.getValue());
+            }
+        }
+        declare(w, nss, prefix, uri);
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Attr a = (Attr) attrs.item(i);
+            if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(a.getNamespaceURI())) {
+                String aLocal = a.getLocalName() != null ? a.getLocalName() : a.getNodeName();
+                writeAttribute(w, nss, a.getPrefix(), a.getNamespaceURI(), aLocal, a.getValue());
+            }
+        }
+        writeChildren(w, nss, e);
+        w.writeEndElement();
+        nss.popContext();
+    }
+
+    private static void writeChildren(XMLStreamWriter w, NamespaceSupport nss, Node parent) throws XMLStreamException {
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            switch (n.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    writeElement(w, nss, (Element) n);
+                    break;
+                case Node.TEXT_NODE:
+                    w.writeCharacters(n.getNodeValue());
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    w.writeCData(n.getNodeValue());
+                    break;
+                case Node.ENTITY_REFERENCE_NODE:
+                    writeChildren(w, nss, n);
+                    break;
+                default:
+                    // comments and processing instructions are dropped, as by JAXB
+                    break;
+            }
+        }
+    }
+
+    private static void declare(XMLStreamWriter w, NamespaceSupport nss,
+            String prefix, String uri) throws XMLStreamException {
+        if (XMLConstants.XML_NS_PREFIX.equals(prefix) || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+            return;
+        }
+        String bound = nss.getURI(prefix);
+        if (uri.equals(bound == null ? "" : bound)) {
+            return;
+        }
+        if (prefix.length() == 0) {
+            w.writeDefaultNamespace(uri);
+        } else if (uri.length() == 0) {
+            // prefixes cannot be undeclared in XML 1.0
+            return;
+        } else {
+            w.writeNamespace(prefix, uri);
+        }
+        nss.declarePrefix(prefix, uri);
+    }
+
+    private static String newPrefix(NamespaceSupport nss) {
+        int i = 1;
+        while (nss.getURI("ns" + i) != null) {
+            i++;
+        }
+        return "ns" + i;
+    }
+
+    // --- utilities
+
+    private static Document newDocument() {
+        return Factories.DOM.createDocument(null, null, null);
+    }
+
+    private static String qname(String prefix, String local) {
+        return prefix == null || prefix.length() == 0 ? local : prefix + ':' + local;
+    }
+
+    private static String xmlnsQName(String prefix) {
+        return prefix == null || prefix.length() == 0 ? "xmlns" : "xmlns:" + prefix;
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.length() == 0 ? null : s;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    // initialized on first use of the streaming path only
+    static final class Factories {
+
+        static final XMLInputFactory INPUT;
+        static final XMLOutputFactory OUTPUT;
+        static final DOMImplementation DOM;
+
+        static {
+            INPUT = XMLInputFactory.newInstance();
+            INPUT.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+            INPUT.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            INPUT.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            OUTPUT = XMLOutputFactory.newInstance();
+            try {
+                DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+                dbf.setNamespaceAware(true);
+                DOM = dbf.newDocumentBuilder().getDOMImplementation();
+            } catch (ParserConfigurationException e) {
+                throw new WebServiceException("Error creating DOM implementation for W3CEndpointReference. ", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.xml.ws.wsaddressing;
+
+import org.w3c.dom.Element;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * An immutable template of {@code W3CEndpointReference} instances which
+ * differ only in their reference parameters.
+ * <p>
+ * A template is created by {@link W3CEndpointReferenceBuilder#buildTemplate()}
+ * which builds and validates the {@code W3CEndpointReference} once. Each call
+ * to {@link #create} then returns a new {@code W3CEndpointReference} sharing
+ * the address, metadata, extension elements and attributes of the template
+ * and carrying the additional reference parameters. The serialized form
+ * of the shared parts is also computed once, so writing a created
+ * {@code W3CEndpointReference} to a {@code StreamResult} serializes the
+ * reference parameters only.
+ * <p>
+ * Templates are thread-safe and are intended to be kept and reused, for
+ * example to create the reply-to EPR of every response sent by a service.
+ *
+ * @see W3CEndpointReferenceBuilder#buildTemplate()
+ * @since JAX-WS 2.4
+ */
+public final class W3CEndpointReferenceTemplate {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final W3CEndpointReference base;
+
+    // serialized form of the base EPR around wsa:ReferenceParameters
+    private final String head;
+    private final String tail;
+    private final byte[] headBytes;
+    private final byte[] tailBytes;
+
+    // namespaces declared on wsa:EndpointReference, as prefix/uri pairs
+    private final String[] namespaces;
+
+    W3CEndpointReferenceTemplate(W3CEndpointReference base) {
+        this.base = base;
+        try {
+            StringWriter sw = new StringWriter(256);
+            XMLStreamWriter w = W3CEndpointReferenceCodec.Factories.OUTPUT.createXMLStreamWriter(sw);
+            NamespaceSupport nss = W3CEndpointReferenceCodec.writeHead(base, w);
+            // closes the start tag if nothing has been written after it
+            w.writeCharacters("");
+            w.flush();
+            int mark = sw.getBuffer().length();
+
+            List<String> declared = new ArrayList<String>();
+            for (Enumeration<?> e = nss.getDeclaredPrefixes(); e.hasMoreElements();) {
+                String prefix = (String) e.nextElement();
+                declared.add(prefix);
+                declared.add(nss.getURI(prefix));
+            }
+            this.namespaces = declared.toArray(new String[declared.size()]);
+
+            W3CEndpointReferenceCodec.writeTail(base, w, nss);
+            w.close();
+            this.head = sw.getBuffer().substring(0, mark);
+            this.tail = sw.getBuffer().substring(mark);
+        } catch (XMLStreamException e) {
+            throw new WebServiceException("Error marshalling W3CEndpointReference. ", e);
+        }
+        this.headBytes = head.getBytes(UTF_8);
+        this.tailBytes = tail.getBytes(UTF_8);
+    }
+
+    /**
+     * Creates a new {@code W3CEndpointReference} from this template.
+     * The given {@code referenceParameters} are added after the reference
+     * parameters of the template.
+     *
+     * @param referenceParameters The elements to be added to the
+     *      {@code wsa:ReferenceParameters} element.
+     *
+     * @return A new {@code W3CEndpointReference}, never {@code null}.
+     *
+     * @throws java.lang.IllegalArgumentException if any of the
+     *      {@code referenceParameters} is {@code null}.
+     */
+    public W3CEndpointReference create(Element... referenceParameters) {
+        W3CEndpointReference epr = new W3CEndpointReference();
+        epr.address = base.address;
+        epr.metadata = base.metadata;
+        epr.attributes = base.attributes;
+        epr.elements = base.elements;
+        epr.template = this;
+        if (referenceParameters == null || referenceParameters.length == 0) {
+            epr.referenceParameters = base.referenceParameters;
+            return epr;
+        }
+
+        List<Element> baseParameters = base.referenceParameters != null ? base.referenceParameters.elements : null;
+        int size = baseParameters != null ? baseParameters.size() : 0;
+        List<Element> parameters = new ArrayList<Element>(size + referenceParameters.length);
+        if (baseParameters != null) {
+            parameters.addAll(baseParameters);
+        }
+        for (Element e : referenceParameters) {
+            if (e == null) {
+                throw new IllegalArgumentException("The referenceParameter cannot be null.");
+            }
+            parameters.add(e);
+        }
+        W3CEndpointReference.Elements elements = new W3CEndpointReference.Elements();
+        elements.elements = parameters;
+        elements.attributes = base.referenceParameters != null ? base.referenceParameters.attributes : null;
+        epr.referenceParameters = elements;
+        return epr;
+    }
+
+    /**
+     * Writes {@code epr} created by this template to the {@code result}
+     * reusing the serialized form of the shared parts.
+     *
+     * @return {@code false} if the {@code result} is not supported
+     */
+    boolean writeTo(W3CEndpointReference epr, Result result) throws XMLStreamException {
+        if (!(result instanceof StreamResult)) {
+            return false;
+        }
+        StreamResult sr = (StreamResult) result;
+        try {
+            if (sr.getWriter() != null) {
+                Writer out = sr.getWriter();
+                out.write(head);
+                writeReferenceParameters(epr, W3CEndpointReferenceCodec.Factories.OUTPUT.createXMLStreamWriter(out));
+                out.write(tail);
+                out.flush();
+                return true;
+            }
+            if (sr.getOutputStream() != null) {
+                OutputStream out = sr.getOutputStream();
+                out.write(headBytes);
+                writeReferenceParameters(epr, W3CEndpointReferenceCodec.Factories.OUTPUT.createXMLStreamWriter(out, "UTF-8"));
+                out.write(tailBytes);
+                out.flush();
+                return true;
+            }
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+        return false;
+    }
+
+    private void writeReferenceParameters(W3CEndpointReference epr, XMLStreamWriter w) throws XMLStreamException {
+        NamespaceSupport nss = new NamespaceSupport();
+        nss.pushContext();
+        for (int i = 0; i < namespaces.length; i += 2) {
+            nss.declarePrefix(namespaces[i], namespaces[i + 1]);
+        }
+        W3CEndpointReferenceCodec.writeReferenceParameters(epr.referenceParameters, w, nss);
+        w.close();
+    }
+}
@@ -131,9 +131,11 @@ clean() {
 # Sets up:
 #  1) ${java.home}/conf/jaxws.properties file
 #  2) META-INF/services/javax.xml.ws.spi.Provider file
+#  3) optional META-INF/jaxws-factory.index file
 prepare() {
     PROPS=$1
     SVC=$2
+    INDEX=$3
 
     echo ""
     echo "- prepare/clean -"
@@ -158,6 +160,12 @@ prepare() {
         else rm -rf $JAVA_HOME/$JDK_CONF_DIR/jaxws.properties
     fi
 
+    if [ -n "$INDEX" ] && [ "$INDEX" != "-" ]; then
+        mkdir -p META-INF
+        echo "$INDEX" > META-INF/jaxws-factory.index
+        echo index: $INDEX
+    fi
+
     echo properties: $PROPS
     if [ -f $JAVA_HOME/$JDK_CONF_DIR/jaxws.properties ]; then
       echo "   "`ls -al $JAVA_HOME/$JDK_CONF_DIR/jaxws.properties`
@@ -114,3 +114,50 @@ test jaxws.factory.Valid - -Djavax.xml.ws.spi.Provider=jaxws.factory.Valid
 scenario 15
 prepare - -
 test jaxws.factory.Valid - -Djavax.xml.ws.spi.Provider=jaxws.factory.Valid
+
+# SAAJ factories of SOAPBinding are created once per context class loader
+scenario 16
+prepare - -
+echo java $D $ENDORSED jaxws.test.SOAPFactoryCacheTest
+java $D $ENDORSED jaxws.test.SOAPFactoryCacheTest
+
+# W3CEndpointReference streaming path against JAXB
+scenario 17
+prepare - -
+echo java $D $ENDORSED jaxws.test.EndpointReferenceCodecTest
+java $D $ENDORSED jaxws.test.EndpointReferenceCodecTest
+
+# META-INF/jaxws-factory.index
+# prepare arg1 arg2 arg3 ... arg3 = index content
+
+# index hit
+scenario 18
+prepare - - javax.xml.ws.spi.Provider=jaxws.factory.Valid2
+test jaxws.factory.Valid2 -
+
+# stale index, falls back to ServiceLoader
+scenario 19
+prepare - jaxws.factory.Valid javax.xml.ws.spi.Provider=jaxws.factory.NonExisting
+test jaxws.factory.Valid -
+
+# stale index, falls back to the default
+scenario 20
+prepare - - javax.xml.ws.spi.Provider=jaxws.factory.NonExisting
+test $DEFAULT -
+
+# system property disables the index
+scenario 21
+prepare - - javax.xml.ws.spi.Provider=jaxws.factory.Valid2
+test jaxws.factory.Valid3 - -Djavax.xml.ws.spi.Provider=jaxws.factory.Valid3
+
+# CompactMessageContext against HashMap semantics
+scenario 22
+prepare - -
+echo java $D $ENDORSED jaxws.test.CompactMessageContextTest
+java $D $ENDORSED jaxws.test.CompactMessageContextTest
+
+# LayeredContext and LayeredContext.PerThread against HashMap semantics
+scenario 23
+prepare - -
+echo java $D $ENDORSED jaxws.test.LayeredContextTest
+java $D $ENDORSED jaxws.test.LayeredContextTest
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package jaxws.bench;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.wsaddressing.W3CEndpointReference;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+/**
+ * Measures W3CEndpointReference round trips (parse + serialize) per second.
+ *
+ * usage: java jaxws.bench.EndpointReferenceBench [iterations]
+ *
+ * The "per-epr context" run emulates the former behaviour where each
+ * W3CEndpointReference created its own JAXBContext. The "shared context"
+ * run reads and writes DOM with one JAXBContext and a new (un)marshaller
+ * per EPR, the "pooled (DOM)" run does the same through the
+ * W3CEndpointReference API, which reuses pooled (un)marshallers for DOM
+ * sources and results. The "streaming" run uses the W3CEndpointReference
+ * API with stream sources and results, which it handles without JAXB.
+ */
+public class EndpointReferenceBench {
+
+    static final String EPR =
+            "<EndpointReference xmlns=\"http://www.w3.org/2005/08/addressing\">" +
+            "<Address>http://localhost:8080/service</Address>" +
+            "<ReferenceParameters><id xmlns=\"urn:test\">42</id></ReferenceParameters>" +
+            "<Metadata><m xmlns=\"urn:test\">meta</m></Metadata>" +
+            "</EndpointReference>";
+
+    interface RoundTrip {
+        void run() throws Exception;
+    }
+
+    static void measure(String name, int iterations, RoundTrip roundTrip) throws Exception {
+        // warm up
+        for (int i = 0; i < iterations / 10; i++) {
+            roundTrip.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            roundTrip.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        log(String.format("%-20s %10.0f EPRs/s", name, iterations * 1e9 / elapsed));
+    }
+
+    static void log(String msg) {
+        System.out.println(msg);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        measure("per-epr context", iterations / 20, new RoundTrip() {
+            @Override
+            public void run() throws Exception {
+                JAXBContext jc = JAXBContext.newInstance(W3CEndpointReference.class);
+                Object epr = jc.createUnmarshaller().unmarshal(
+                        new StreamSource(new StringReader(EPR)), W3CEndpointReference.class).getValue();
+                jc.createMarshaller().marshal(epr, new StreamResult(new StringWriter()));
+            }
+        });
+
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        final Document document = dbf.newDocumentBuilder().parse(new InputSource(new StringReader(EPR)));
+
+        final JAXBContext shared = JAXBContext.newInstance(W3CEndpointReference.class);
+        measure("shared context", iterations, new RoundTrip() {
+            @Override
+            public void run() throws Exception {
+                Object epr = shared.createUnmarshaller().unmarshal(
+                        new DOMSource(document), W3CEndpointReference.class).getValue();
+                shared.createMarshaller().marshal(epr, new DOMResult());
+            }
+        });
+
+        measure("pooled (DOM)", iterations, new RoundTrip() {
+            @Override
+            public void run() throws Exception {
+                W3CEndpointReference epr = new W3CEndpointReference(new DOMSource(document));
+                epr.writeTo(new DOMResult());
+            }
+        });
+
+        measure("streaming", iterations, new RoundTrip() {
+            @Override
+            public void run() throws Exception {
+                W3CEndpointReference epr = new W3CEndpointReference(new StreamSource(new StringReader(EPR)));
+                epr.writeTo(new StreamResult(new StringWriter()));
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package jaxws.bench;
+
+import javax.xml.ws.spi.Provider;
+
+/**
+ * Measures time of the first and of subsequent Provider lookups.
+ *
+ * usage: java jaxws.bench.ProviderStartupBench
+ *
+ * Run it in a fresh JVM with and without META-INF/jaxws-factory.index
+ * on the classpath to see the effect of the precomputed factory index
+ * on startup.
+ */
+public class ProviderStartupBench {
+
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        Provider provider = Provider.provider();
+        long first = System.nanoTime() - start;
+
+        int iterations = 1000000;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Provider.provider();
+        }
+        long next = (System.nanoTime() - start) / iterations;
+
+        System.out.println("provider:      " + provider.getClass().getName());
+        System.out.println(String.format("first lookup:  %.3f ms", first / 1e6));
+        System.out.println("cached lookup: " + next + " ns");
+    }
+}
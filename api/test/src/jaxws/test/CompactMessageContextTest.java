@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package jaxws.test;
+
+import javax.xml.ws.handler.CompactMessageContext;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.handler.MessageContext.Scope;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests CompactMessageContext against HashMap semantics, including the
+ * scopes of the properties.
+ */
+public class CompactMessageContextTest {
+
+    private static final String[] STANDARD = {
+            MessageContext.WSDL_PORT, MessageContext.HTTP_RESPONSE_CODE,
+            MessageContext.MESSAGE_OUTBOUND_PROPERTY, MessageContext.PATH_INFO,
+            MessageContext.REFERENCE_PARAMETERS };
+
+    public static void main(String[] args) {
+        basic();
+        log(" PASSED");
+        collisions();
+        log(" PASSED");
+        iteratorRemove();
+        log(" PASSED");
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+        String[] keys = new String[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "k" + i;
+        }
+        random(seed, keys);
+        log(" PASSED");
+        // colliding keys hashed to the end of a small table, probe sequences wrap around
+        random(seed, wrappingKeys());
+        log(" PASSED");
+    }
+
+    private static void basic() {
+        CompactMessageContext c = new CompactMessageContext();
+        assertTrue(c.isEmpty() && c.get("a") == null && !c.containsKey("a"), "not empty");
+
+        c.put(MessageContext.WSDL_PORT, "port");
+        c.put("a", null);
+        assertTrue(c.size() == 2 && c.containsKey("a") && c.get("a") == null, "null value");
+        assertTrue(c.getScope("a") == Scope.APPLICATION
+                && c.getScope(MessageContext.WSDL_PORT) == Scope.APPLICATION, "default scope");
+
+        c.setDefaultScope(Scope.HANDLER);
+        c.put("b", "b");
+        c.put("a", "a");
+        assertTrue(c.getScope("b") == Scope.HANDLER, "new property gets the default scope");
+        assertTrue(c.getScope("a") == Scope.APPLICATION, "replacing a value keeps the scope");
+
+        c.setScope(MessageContext.WSDL_PORT, Scope.HANDLER);
+        c.setScope("a", Scope.HANDLER);
+        assertTrue(c.getScope(MessageContext.WSDL_PORT) == Scope.HANDLER
+                && c.getScope("a") == Scope.HANDLER, "setScope");
+
+        c.remove("a");
+        c.setDefaultScope(Scope.APPLICATION);
+        c.put("a", "again");
+        assertTrue(c.getScope("a") == Scope.APPLICATION, "scope of a removed property is forgotten");
+
+        assertIllegalScope(c, "missing");
+        assertIllegalScope(c, MessageContext.HTTP_REQUEST_HEADERS);
+
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put(MessageContext.WSDL_PORT, "port");
+        expected.put("a", "again");
+        expected.put("b", "b");
+        assertEquals(c, expected, "basic");
+    }
+
+    // "Aa" and "BB" have the same hash code, so do all their concatenations
+    private static List<String> collidingKeys(String prefix, int levels) {
+        List<String> keys = new ArrayList<String>();
+        keys.add(prefix);
+        for (int i = 0; i < levels; i++) {
+            List<String> longer = new ArrayList<String>();
+            for (String k : keys) {
+                longer.add(k + "Aa");
+                longer.add(k + "BB");
+            }
+            keys = longer;
+        }
+        return keys;
+    }
+
+    // 7 keys, which fit a table of 16, hashed (spread as HashMap does) to
+    // its last and first slot, so that probe sequences wrap around its end
+    private static String[] wrappingKeys() {
+        List<String> keys = new ArrayList<String>();
+        keys.addAll(collidingKeys(prefixFor(15), 2));
+        keys.addAll(collidingKeys(prefixFor(0), 2).subList(0, 3));
+        return keys.toArray(new String[keys.size()]);
+    }
+
+    private static String prefixFor(int slot) {
+        for (int p = 0; ; p++) {
+            int h = collidingKeys("p" + p, 2).get(0).hashCode();
+            if (((h ^ (h >>> 16)) & 15) == slot) {
+                return "p" + p;
+            }
+        }
+    }
+
+    private static void collisions() {
+        List<String> keys = collidingKeys("", 6);
+        CompactMessageContext c = new CompactMessageContext();
+        Map<String, Object> expected = new HashMap<String, Object>();
+        Map<String, Scope> scopes = new HashMap<String, Scope>();
+        for (int i = 0; i < keys.size(); i++) {
+            String k = keys.get(i);
+            c.setDefaultScope(i % 3 == 0 ? Scope.HANDLER : Scope.APPLICATION);
+            c.put(k, i);
+            expected.put(k, i);
+            scopes.put(k, c.getDefaultScope());
+        }
+        assertEquals(c, expected, "colliding keys");
+        // remove from the middle of the chain, the rest has to stay reachable
+        for (int i = 1; i < keys.size(); i += 2) {
+            String k = keys.get(i);
+            assertTrue(Integer.valueOf(i).equals(c.remove(k)), "remove " + k);
+            expected.remove(k);
+            scopes.remove(k);
+            assertTrue(c.remove(k) == null, "remove twice " + k);
+        }
+        assertEquals(c, expected, "colliding keys after removal");
+        assertScopes(c, scopes, "colliding keys after removal");
+        for (int i = 1; i < keys.size(); i += 4) {
+            c.setDefaultScope(Scope.HANDLER);
+            c.put(keys.get(i), "back");
+            expected.put(keys.get(i), "back");
+            scopes.put(keys.get(i), Scope.HANDLER);
+        }
+        assertEquals(c, expected, "colliding keys re-added");
+        assertScopes(c, scopes, "colliding keys re-added");
+    }
+
+    private static void iteratorRemove() {
+        CompactMessageContext c = new CompactMessageContext();
+        Map<String, Object> expected = new HashMap<String, Object>();
+        for (int i = 0; i < 40; i++) {
+            String k = i < STANDARD.length ? STANDARD[i] : "k" + i;
+            c.put(k, i);
+            expected.put(k, i);
+        }
+        int n = 0;
+        for (Iterator<Map.Entry<String, Object>> it = c.entrySet().iterator(); it.hasNext(); n++) {
+            Map.Entry<String, Object> e = it.next();
+            if (n % 2 == 0) {
+                it.remove();
+                expected.remove(e.getKey());
+            } else if (n % 3 == 0) {
+                e.setValue("set");
+                expected.put(e.getKey(), "set");
+            }
+        }
+        assertEquals(c, expected, "entrySet().iterator().remove()");
+
+        Map.Entry<String, Object> any = c.entrySet().iterator().next();
+        Map.Entry<String, Object> copy = new HashMap.SimpleEntry<String, Object>(any);
+        assertTrue(c.entrySet().remove(copy), "entrySet().remove()");
+        expected.remove(copy.getKey());
+        assertEquals(c, expected, "entrySet().remove()");
+
+        c.keySet().retainAll(new ArrayList<String>(expected.keySet()).subList(0, 2));
+        expected.keySet().retainAll(new ArrayList<String>(expected.keySet()).subList(0, 2));
+        assertEquals(c, expected, "keySet().retainAll()");
+    }
+
+    private static void random(long seed, String[] userKeys) {
+        Random r = new Random(seed);
+        CompactMessageContext c = new CompactMessageContext();
+        Map<String, Object> m = new HashMap<String, Object>();
+        Map<String, Scope> scopes = new HashMap<String, Scope>();
+        for (int n = 0; n < 200000; n++) {
+            String k = r.nextInt(5) == 0 ? STANDARD[r.nextInt(STANDARD.length)] : userKeys[r.nextInt(userKeys.length)];
+            int op = r.nextInt(10);
+            if (op < 4) {
+                Object v = r.nextInt(3) == 0 ? null : (Object) n;
+                c.setDefaultScope(r.nextBoolean() ? Scope.HANDLER : Scope.APPLICATION);
+                if (!m.containsKey(k)) {
+                    scopes.put(k, c.getDefaultScope());
+                }
+                check(eq(c.put(k, v), m.put(k, v)), "put " + k, seed, n);
+            } else if (op < 6) {
+                check(eq(c.remove(k), m.remove(k)), "remove " + k, seed, n);
+                scopes.remove(k);
+            } else if (op < 7) {
+                if (m.containsKey(k)) {
+                    Scope s = r.nextBoolean() ? Scope.HANDLER : Scope.APPLICATION;
+                    c.setScope(k, s);
+                    scopes.put(k, s);
+                }
+            } else if (op < 9) {
+                check(eq(c.get(k), m.get(k)) && c.containsKey(k) == m.containsKey(k), "get " + k, seed, n);
+            } else if (r.nextInt(200) == 0) {
+                for (Iterator<Map.Entry<String, Object>> it = c.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Object> e = it.next();
+                    if (r.nextInt(3) == 0) {
+                        it.remove();
+                        m.remove(e.getKey());
+                        scopes.remove(e.getKey());
+                    }
+                }
+                check(c.equals(m) && m.equals(c) && c.size() == m.size()
+                        && c.hashCode() == m.hashCode(), "iteration", seed, n);
+                for (Map.Entry<String, Scope> e : scopes.entrySet()) {
+                    check(c.getScope(e.getKey()) == e.getValue(), "scope " + e.getKey(), seed, n);
+                }
+            }
+            if (r.nextInt(20000) == 0) {
+                c.clear();
+                m.clear();
+                scopes.clear();
+            }
+        }
+        assertEquals(c, m, "random operations, seed " + seed);
+        assertScopes(c, scopes, "random operations, seed " + seed);
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String msg, long seed, int step) {
+        if (!condition) {
+            assertTrue(false, msg + " (seed " + seed + ", step " + step + ")");
+        }
+    }
+
+    private static void assertIllegalScope(CompactMessageContext c, String name) {
+        try {
+            c.getScope(name);
+            assertTrue(false, "getScope of missing property " + name);
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            c.setScope(name, Scope.HANDLER);
+            assertTrue(false, "setScope of missing property " + name);
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static void assertEquals(Map<String, Object> actual, Map<String, Object> expected, String msg) {
+        assertTrue(actual.equals(expected) && expected.equals(actual)
+                && actual.size() == expected.size() && actual.hashCode() == expected.hashCode()
+                && new HashMap<String, Object>(actual).equals(expected),
+                msg + ": [" + actual + "], expected: [" + expected + "]");
+        for (Map.Entry<String, Object> e : expected.entrySet()) {
+            assertTrue(actual.containsKey(e.getKey()) && eq(actual.get(e.getKey()), e.getValue()),
+                    msg + ": lookup of " + e.getKey());
+        }
+    }
+
+    private static void assertScopes(CompactMessageContext c, Map<String, Scope> scopes, String msg) {
+        for (Map.Entry<String, Scope> e : scopes.entrySet()) {
+            assertTrue(c.getScope(e.getKey()) == e.getValue(), msg + ": scope of " + e.getKey());
+        }
+    }
+
+    private static void assertTrue(boolean condition, String msg) {
+        if (!condition) {
+            log(" FAILED -  ERROR: " + msg);
+            throw new RuntimeException(msg);
+        }
+    }
+
+    private static void log(String msg) {
+        System.out.println(msg);
+    }
+}
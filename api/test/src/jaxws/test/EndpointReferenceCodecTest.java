@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package jaxws.test;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.wsaddressing.W3CEndpointReference;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests that W3CEndpointReference reads and writes stream sources and
+ * results, handled without JAXB, to the same infoset as DOM sources and
+ * results, handled by JAXB.
+ */
+public class EndpointReferenceCodecTest {
+
+    static final String EPR =
+            "<wsa:EndpointReference xmlns:wsa=\"http://www.w3.org/2005/08/addressing\"" +
+            "        xmlns:tns=\"urn:tns\" xmlns=\"urn:default\"" +
+            "        xmlns:ext=\"urn:ext\" ext:flag=\"on\" xml:lang=\"en\">" +
+            "  <wsa:Address ext:kind=\"anonymous\">http://localhost:8080/service</wsa:Address>" +
+            "  <wsa:ReferenceParameters ext:count=\"2\">" +
+            "    <tns:id xml:lang=\"cs\">42</tns:id>" +
+            "    <key>tns:Key</key>" +
+            "    <tns:nested ext:attr=\"a\"><inner xmlns=\"urn:inner\">text<!-- comment --></inner></tns:nested>" +
+            "  </wsa:ReferenceParameters>" +
+            "  <wsa:Metadata>" +
+            "    <wsam:ServiceName xmlns:wsam=\"http://www.w3.org/2007/05/addressing/metadata\"" +
+            "        EndpointName=\"tns:Port\">tns:Service</wsam:ServiceName>" +
+            "  </wsa:Metadata>" +
+            "  <ext:extension>value</ext:extension>" +
+            "</wsa:EndpointReference>";
+
+    public static void main(String[] args) throws Exception {
+        String reference = canonical(writeDOM(readDOM(EPR)));
+
+        // every combination of the streaming and the JAXB path
+        check("DOM -> stream", canonical(writeStream(readDOM(EPR))), reference);
+        check("stream -> DOM", canonical(writeDOM(readStream(EPR))), reference);
+        check("stream -> stream", canonical(writeStream(readStream(EPR))), reference);
+        check("StAX -> stream", canonical(writeStream(readStAX(EPR))), reference);
+
+        // a second round trip through the streaming path does not change anything
+        String once = toString(readStream(EPR));
+        check("stream round trip", canonical(writeStream(readStream(once))), reference);
+        assertTrue(!once.contains("xmlns:xml") && !once.contains("xmlns:xmlns"),
+                "Reserved prefix declared: " + once);
+        // fragments read from a stream are written by JAXB as they are
+        assertTrue(!declaresReservedPrefix(writeDOM(readStream(EPR))),
+                "Reserved prefix declared on a fragment");
+
+        String wrongRoot = "<wsa:Foo xmlns:wsa=\"http://www.w3.org/2005/08/addressing\">" +
+                "<wsa:Address>http://localhost/</wsa:Address></wsa:Foo>";
+        try {
+            readStream(wrongRoot);
+            assertTrue(false, "No exception for a wrong root element");
+        } catch (WebServiceException expected) {
+            log(" PASSED");
+        }
+    }
+
+    static W3CEndpointReference readDOM(String xml) throws Exception {
+        return new W3CEndpointReference(new DOMSource(parse(xml)));
+    }
+
+    static W3CEndpointReference readStream(String xml) {
+        return new W3CEndpointReference(new StreamSource(new StringReader(xml)));
+    }
+
+    static W3CEndpointReference readStAX(String xml) throws Exception {
+        return new W3CEndpointReference(new StAXSource(
+                XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml))));
+    }
+
+    static Element writeDOM(W3CEndpointReference epr) {
+        DOMResult result = new DOMResult();
+        epr.writeTo(result);
+        Node node = result.getNode();
+        return node instanceof Document ? ((Document) node).getDocumentElement() : (Element) node;
+    }
+
+    static Element writeStream(W3CEndpointReference epr) throws Exception {
+        return parse(toString(epr)).getDocumentElement();
+    }
+
+    static String toString(W3CEndpointReference epr) {
+        StringWriter out = new StringWriter();
+        epr.writeTo(new StreamResult(out));
+        return out.toString();
+    }
+
+    static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        return dbf.newDocumentBuilder().parse(new org.xml.sax.InputSource(new StringReader(xml)));
+    }
+
+    static boolean declaresReservedPrefix(Element e) {
+        NamedNodeMap attrs = e.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Attr a = (Attr) attrs.item(i);
+            if (XMLConstants.XMLNS_ATTRIBUTE.equals(a.getPrefix())
+                    && (XMLConstants.XML_NS_PREFIX.equals(a.getLocalName())
+                        || XMLConstants.XMLNS_ATTRIBUTE.equals(a.getLocalName()))) {
+                return true;
+            }
+        }
+        for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n instanceof Element && declaresReservedPrefix((Element) n)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the infoset of the element as a string, ignoring prefixes,
+     * namespace declarations and whitespace-only text. QName values of
+     * attributes and text are resolved, which checks the namespaces
+     * inherited by fragments.
+     */
+    static String canonical(Element e) {
+        StringBuilder sb = new StringBuilder();
+        canonical(e, sb);
+        return sb.toString();
+    }
+
+    private static void canonical(Element e, StringBuilder sb) {
+        sb.append('<').append('{').append(nullToEmpty(e.getNamespaceURI())).append('}').append(e.getLocalName());
+        List<String> attributes = new ArrayList<String>();
+        NamedNodeMap attrs = e.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Attr a = (Attr) attrs.item(i);
+            if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(a.getNamespaceURI())) {
+                attributes.add('{' + nullToEmpty(a.getNamespaceURI()) + '}' + a.getLocalName()
+                        + "=\"" + resolve(e, a.getValue()) + '"');
+            }
+        }
+        Collections.sort(attributes);
+        for (String a : attributes) {
+            sb.append(' ').append(a);
+        }
+        sb.append('>');
+        for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling()) {
+            switch (n.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    canonical((Element) n, sb);
+                    break;
+                case Node.TEXT_NODE:
+                case Node.CDATA_SECTION_NODE:
+                    if (n.getNodeValue().trim().length() > 0) {
+                        sb.append(resolve(e, n.getNodeValue()));
+                    }
+                    break;
+                case Node.COMMENT_NODE:
+                    sb.append("<!--").append(n.getNodeValue()).append("-->");
+                    break;
+                default:
+                    break;
+            }
+        }
+        sb.append("</>");
+    }
+
+    // resolves "prefix:local" values in the scope of the element
+    private static String resolve(Element scope, String value) {
+        int colon = value.indexOf(':');
+        if (colon <= 0 || value.indexOf('/') >= 0) {
+            return value;
+        }
+        String uri = scope.lookupNamespaceURI(value.substring(0, colon));
+        return uri == null ? value : '{' + uri + '}' + value.substring(colon + 1);
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    private static void check(String name, String actual, String expected) {
+        assertTrue(expected.equals(actual), name + ": [" + actual + "], expected: [" + expected + "]");
+    }
+
+    private static void assertTrue(boolean condition, String msg) {
+        if (!condition) {
+            log(" FAILED -  ERROR: " + msg);
+            throw new RuntimeException(msg);
+        } else {
+            log(" PASSED");
+        }
+    }
+
+    private static void log(String msg) {
+        System.out.println(msg);
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package jaxws.test;
+
+import javax.xml.ws.LayeredContext;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests LayeredContext and LayeredContext.PerThread against HashMap semantics.
+ */
+public class LayeredContextTest {
+
+    public static void main(String[] args) throws Exception {
+        basic();
+        log(" PASSED");
+        fork();
+        log(" PASSED");
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+        random(seed);
+        log(" PASSED");
+        perThread();
+        log(" PASSED");
+        perThreadSetBase();
+        log(" PASSED");
+        perThreadReadOnly();
+        log(" PASSED");
+    }
+
+    private static void basic() {
+        Map<String, Object> base = new HashMap<String, Object>();
+        base.put("a", "1");
+        base.put("b", "2");
+        LayeredContext c = new LayeredContext(LayeredContext.freeze(base));
+        Map<String, Object> expected = new HashMap<String, Object>(base);
+        assertEquals(c, expected, "base");
+        assertTrue(!c.isModified() && c.snapshot() == c.getBase(), "not modified");
+
+        c.put("c", null);
+        expected.put("c", null);
+        c.put("a", "3");
+        expected.put("a", "3");
+        assertTrue(c.remove("b").equals("2") && c.remove("b") == null, "remove");
+        expected.remove("b");
+        assertEquals(c, expected, "changed");
+        assertEquals(c.snapshot(), expected, "snapshot");
+        assertTrue(c.isModified(), "modified");
+
+        c.put("b", "4");
+        expected.put("b", "4");
+        assertEquals(c, expected, "put removed");
+
+        for (Iterator<Map.Entry<String, Object>> it = c.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Object> e = it.next();
+            if (e.getKey().equals("a")) {
+                it.remove();
+            } else if (e.getKey().equals("b")) {
+                e.setValue("5");
+            }
+        }
+        expected.remove("a");
+        expected.put("b", "5");
+        assertEquals(c, expected, "iterator");
+
+        c.clear();
+        assertTrue(c.isEmpty() && c.get("a") == null && !c.containsKey("b"), "clear");
+        assertTrue(c.getBase().size() == 2, "base unchanged");
+    }
+
+    private static void fork() {
+        Map<String, Object> base = new HashMap<String, Object>();
+        base.put("a", "1");
+        LayeredContext c = new LayeredContext(LayeredContext.freeze(base));
+        c.put("b", "2");
+        LayeredContext f = c.fork();
+        Map<String, Object> expected = new HashMap<String, Object>(c);
+        assertEquals(f, expected, "forked");
+
+        c.put("b", "3");
+        c.remove("a");
+        assertEquals(f, expected, "original changed");
+
+        f.put("c", "4");
+        Map<String, Object> changed = new HashMap<String, Object>();
+        changed.put("b", "3");
+        assertEquals(c, changed, "forked changed");
+        expected.put("c", "4");
+        assertEquals(f, expected, "forked context");
+    }
+
+    private static void random(long seed) {
+        Random r = new Random(seed);
+        String[] keys = new String[12];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "k" + i;
+        }
+        for (int run = 0; run < 50; run++) {
+            Map<String, Object> base = new HashMap<String, Object>();
+            for (String key : keys) {
+                if (r.nextBoolean()) {
+                    base.put(key, r.nextInt(3) == 0 ? null : key);
+                }
+            }
+            List<LayeredContext> contexts = new ArrayList<LayeredContext>();
+            List<Map<String, Object>> models = new ArrayList<Map<String, Object>>();
+            contexts.add(new LayeredContext(LayeredContext.freeze(base)));
+            models.add(new HashMap<String, Object>(base));
+            for (int op = 0; op < 200; op++) {
+                int i = r.nextInt(contexts.size());
+                LayeredContext c = contexts.get(i);
+                Map<String, Object> m = models.get(i);
+                String key = keys[r.nextInt(keys.length)];
+                String msg = "seed " + seed + ", run " + run + ", op " + op;
+                switch (r.nextInt(6)) {
+                case 0:
+                case 1:
+                    Object value = r.nextInt(4) == 0 ? null : Integer.valueOf(op);
+                    assertTrue(eq(c.put(key, value), m.put(key, value)), msg + ": put " + key);
+                    break;
+                case 2:
+                    assertTrue(eq(c.remove(key), m.remove(key)), msg + ": remove " + key);
+                    break;
+                case 3:
+                    if (contexts.size() < 8) {
+                        contexts.add(c.fork());
+                        models.add(new HashMap<String, Object>(m));
+                    }
+                    break;
+                case 4:
+                    for (Iterator<String> it = c.keySet().iterator(); it.hasNext();) {
+                        if (it.next().equals(key)) {
+                            it.remove();
+                        }
+                    }
+                    m.remove(key);
+                    break;
+                default:
+                    if (r.nextInt(10) == 0) {
+                        c.clear();
+                        m.clear();
+                    }
+                }
+                for (int j = 0; j < contexts.size(); j++) {
+                    assertEquals(contexts.get(j), models.get(j), msg + ", context " + j);
+                }
+            }
+        }
+    }
+
+    private static void perThread() throws Exception {
+        Map<String, Object> base = new HashMap<String, Object>();
+        base.put("a", "1");
+        final LayeredContext.PerThread p = new LayeredContext.PerThread(base);
+        p.put("b", "2");
+        final Map<String, Object> seen = new HashMap<String, Object>();
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                seen.putAll(p);
+                p.put("c", "3");
+            }
+        };
+        t.start();
+        t.join();
+        assertEquals(seen, base, "other thread");
+        Map<String, Object> expected = new HashMap<String, Object>(base);
+        expected.put("b", "2");
+        assertEquals(p, expected, "current thread");
+
+        LayeredContext f = p.fork();
+        p.put("a", "4");
+        assertEquals(f, expected, "forked");
+        p.reset();
+        assertEquals(p, base, "reset");
+    }
+
+    private static void perThreadSetBase() {
+        Map<String, Object> base = new HashMap<String, Object>();
+        base.put("a", "1");
+        LayeredContext.PerThread p = new LayeredContext.PerThread(base);
+        p.remove("a");
+        p.put("c", "3");
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("c", "3");
+        assertEquals(p, expected, "removed");
+
+        base.clear();
+        base.put("b", "2");
+        p.setBase(base);
+        expected.put("b", "2");
+        assertEquals(p, expected, "new base");
+        assertEquals(p.fork(), expected, "forked on new base");
+    }
+
+    private static void perThreadReadOnly() throws Exception {
+        Map<String, Object> base = new HashMap<String, Object>();
+        base.put("a", "1");
+        base.put("b", "2");
+        LayeredContext.PerThread p = new LayeredContext.PerThread(base);
+        assertEquals(p, base, "base");
+        for (Map.Entry<String, Object> e : p.entrySet()) {
+            e.getValue();
+        }
+        assertTrue(p.fork().getBase() == p.getBase() && !hasContext(p), "read allocated a context");
+
+        for (Iterator<Map.Entry<String, Object>> it = p.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Object> e = it.next();
+            if (e.getKey().equals("a")) {
+                it.remove();
+            } else {
+                e.setValue("3");
+            }
+        }
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("b", "3");
+        assertEquals(p, expected, "written through iterator");
+        assertTrue(hasContext(p) && p.getBase().size() == 2, "base changed");
+    }
+
+    private static boolean hasContext(LayeredContext.PerThread p) throws Exception {
+        Field f = LayeredContext.PerThread.class.getDeclaredField("contexts");
+        f.setAccessible(true);
+        return ((ThreadLocal<?>) f.get(p)).get() != null;
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void assertEquals(Map<String, Object> actual, Map<String, Object> expected, String msg) {
+        List<String> iterated = new ArrayList<String>();
+        for (Map.Entry<String, Object> e : actual.entrySet()) {
+            iterated.add(e.getKey());
+        }
+        assertTrue(actual.equals(expected) && expected.equals(actual)
+                && actual.size() == expected.size() && iterated.size() == expected.size()
+                && actual.hashCode() == expected.hashCode()
+                && new HashMap<String, Object>(actual).equals(expected),
+                msg + ": [" + actual + "], expected: [" + expected + "]");
+        for (Map.Entry<String, Object> e : expected.entrySet()) {
+            assertTrue(actual.containsKey(e.getKey()) && eq(actual.get(e.getKey()), e.getValue()),
+                    msg + ": " + e.getKey());
+        }
+    }
+
+    private static void assertTrue(boolean condition, String msg) {
+        if (!condition) {
+            log(" FAILED -  ERROR: " + msg);
+            throw new RuntimeException(msg);
+        }
+    }
+
+    private static void log(String msg) {
+        System.out.println(msg);
+    }
+}
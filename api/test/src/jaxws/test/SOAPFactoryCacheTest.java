@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package jaxws.test;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.Detail;
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.MimeHeaders;
+import javax.xml.soap.Name;
+import javax.xml.soap.SAAJMetaFactory;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPFactory;
+import javax.xml.soap.SOAPFault;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.handler.Handler;
+import javax.xml.ws.soap.SOAPBinding;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests that {@link SOAPBinding#getSOAPFactory()} and
+ * {@link SOAPBinding#getMessageFactory()} create the SAAJ factories once
+ * per SOAP version and context class loader.
+ * <p>
+ * SAAJ is pointed to {@link CountingMetaFactory}, which counts the factories
+ * it creates.
+ */
+public class SOAPFactoryCacheTest {
+
+    private static final String[] SOAP11 = {
+            SOAPBinding.SOAP11HTTP_BINDING, SOAPBinding.SOAP11HTTP_MTOM_BINDING };
+
+    private static final String[] SOAP12 = {
+            SOAPBinding.SOAP12HTTP_BINDING, SOAPBinding.SOAP12HTTP_MTOM_BINDING };
+
+    public static void main(String[] args) throws Exception {
+        // SAAJ 1.3 and SAAJ 1.4 names of the property
+        System.setProperty("javax.xml.soap.MetaFactory", CountingMetaFactory.class.getName());
+        System.setProperty("javax.xml.soap.SAAJMetaFactory", CountingMetaFactory.class.getName());
+
+        ClassLoader appLoader = Thread.currentThread().getContextClassLoader();
+        ClassLoader loader1 = new URLClassLoader(new URL[0], appLoader);
+        ClassLoader loader2 = new URLClassLoader(new URL[0], appLoader);
+
+        Object[] first = factories(appLoader);
+        Object[] second = factories(loader1);
+        Object[] third = factories(loader2);
+
+        // again, nothing new may be created
+        int soapFactories = CountingMetaFactory.soapFactories;
+        int messageFactories = CountingMetaFactory.messageFactories;
+        assertSame(first, factories(appLoader));
+        assertSame(second, factories(loader1));
+        assertSame(third, factories(loader2));
+        assertTrue(CountingMetaFactory.soapFactories == soapFactories,
+                "SOAPFactory created again for the same class loader");
+        assertTrue(CountingMetaFactory.messageFactories == messageFactories,
+                "MessageFactory created again for the same class loader");
+
+        // one per SOAP version and class loader
+        assertTrue(soapFactories == 6, "Expected 6 SOAPFactory instances, got " + soapFactories);
+        assertTrue(messageFactories == 6, "Expected 6 MessageFactory instances, got " + messageFactories);
+        for (int i = 0; i < first.length; i++) {
+            assertTrue(first[i] != second[i] && second[i] != third[i] && first[i] != third[i],
+                    "Factory shared between class loaders");
+        }
+
+        Thread.currentThread().setContextClassLoader(appLoader);
+        try {
+            binding("http://www.w3.org/2004/08/wsdl/http").getMessageFactory();
+            assertTrue(false, "No exception for a non-SOAP binding");
+        } catch (javax.xml.ws.WebServiceException expected) {
+            log(" PASSED");
+        }
+    }
+
+    /**
+     * Returns the SOAP 1.1 and SOAP 1.2 factories created with the given
+     * context class loader, checking the MTOM bindings share them.
+     */
+    private static Object[] factories(ClassLoader classLoader) {
+        Thread.currentThread().setContextClassLoader(classLoader);
+        Object[] factories = {
+                binding(SOAP11[0]).getSOAPFactory(), binding(SOAP11[0]).getMessageFactory(),
+                binding(SOAP12[0]).getSOAPFactory(), binding(SOAP12[0]).getMessageFactory() };
+        assertTrue(factories[0] == binding(SOAP11[1]).getSOAPFactory()
+                && factories[1] == binding(SOAP11[1]).getMessageFactory()
+                && factories[2] == binding(SOAP12[1]).getSOAPFactory()
+                && factories[3] == binding(SOAP12[1]).getMessageFactory(),
+                "MTOM binding does not share the factories");
+        assertTrue(factories[0] != factories[2] && factories[1] != factories[3],
+                "SOAP 1.1 and SOAP 1.2 share the factories");
+        return factories;
+    }
+
+    private static void assertSame(Object[] expected, Object[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(expected[i] == actual[i], "Factory created again: " + actual[i]);
+        }
+    }
+
+    private static SOAPBinding binding(final String bindingId) {
+        return new SOAPBinding() {
+            public Set<String> getRoles() { return null; }
+            public void setRoles(Set<String> roles) { }
+            public boolean isMTOMEnabled() { return false; }
+            public void setMTOMEnabled(boolean flag) { }
+            @SuppressWarnings("rawtypes")
+            public List<Handler> getHandlerChain() { return null; }
+            @SuppressWarnings("rawtypes")
+            public void setHandlerChain(List<Handler> chain) { }
+            public String getBindingID() { return bindingId; }
+        };
+    }
+
+    private static void assertTrue(boolean condition, String msg) {
+        if (!condition) {
+            log(" FAILED -  ERROR: " + msg);
+            throw new RuntimeException(msg);
+        } else {
+            log(" PASSED");
+        }
+    }
+
+    private static void log(String msg) {
+        System.out.println(msg);
+    }
+
+    public static class CountingMetaFactory extends SAAJMetaFactory {
+
+        static volatile int soapFactories;
+        static volatile int messageFactories;
+
+        @Override
+        protected MessageFactory newMessageFactory(String protocol) {
+            messageFactories++;
+            return new MessageFactory() {
+                public SOAPMessage createMessage() { throw new UnsupportedOperationException(); }
+                public SOAPMessage createMessage(MimeHeaders headers, InputStream in) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        protected SOAPFactory newSOAPFactory(String protocol) {
+            soapFactories++;
+            return new SOAPFactory() {
+                public SOAPElement createElement(Name name) { throw new UnsupportedOperationException(); }
+                public SOAPElement createElement(String localName) { throw new UnsupportedOperationException(); }
+                public SOAPElement createElement(String localName, String prefix, String uri) {
+                    throw new UnsupportedOperationException();
+                }
+                public Detail createDetail() { throw new UnsupportedOperationException(); }
+                public SOAPFault createFault(String reasonText, QName faultCode) {
+                    throw new UnsupportedOperationException();
+                }
+                public SOAPFault createFault() { throw new UnsupportedOperationException(); }
+                public Name createName(String localName, String prefix, String uri) {
+                    throw new UnsupportedOperationException();
+                }
+                public Name createName(String localName) { throw new UnsupportedOperationException(); }
+            };
+        }
+    }
+}